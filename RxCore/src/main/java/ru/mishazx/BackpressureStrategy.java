@@ -0,0 +1,15 @@
+package ru.mishazx;
+
+/**
+ * What {@link Flowable#create} does with an item the subscriber has not requested yet.
+ */
+public enum BackpressureStrategy {
+    /** Keeps every item in an unbounded queue until it is requested. */
+    BUFFER,
+    /** Discards the item. */
+    DROP,
+    /** Keeps only the newest unrequested item, replacing the one before it. */
+    LATEST,
+    /** Cancels the source and signals {@link MissingBackpressureException}. */
+    ERROR
+}
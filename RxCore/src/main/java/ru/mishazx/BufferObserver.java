@@ -0,0 +1,61 @@
+package ru.mishazx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Observable#buffer(int)}: collects items into a list sized for {@code count} up front and
+ * hands it over when full. A partial last batch is delivered before completion; an error drops it.
+ */
+final class BufferObserver<T> implements Observer<T> {
+    private final Observer<List<T>> downstream;
+    private final int count;
+    private List<T> buffer;
+
+    BufferObserver(Observer<List<T>> downstream, int count) {
+        this.downstream = downstream;
+        this.count = count;
+        this.buffer = new ArrayList<>(count);
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        downstream.onSubscribe(d);
+    }
+
+    @Override
+    public void onNext(T item) {
+        List<T> current = buffer;
+        if (current == null) {
+            return;
+        }
+        current.add(item);
+        if (current.size() == count) {
+            // The batch now belongs to the downstream, so it gets a fresh list instead of a cleared one
+            buffer = new ArrayList<>(count);
+            downstream.onNext(current);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (buffer == null) {
+            return;
+        }
+        buffer = null;
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        List<T> current = buffer;
+        if (current == null) {
+            return;
+        }
+        buffer = null;
+        if (!current.isEmpty()) {
+            downstream.onNext(current);
+        }
+        downstream.onComplete();
+    }
+}
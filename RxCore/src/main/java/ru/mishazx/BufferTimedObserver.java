@@ -0,0 +1,179 @@
+package ru.mishazx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Observable#buffer(long, TimeUnit, int, Scheduler)}: the current batch is swapped out every
+ * {@code timespan} by a periodic timer, or earlier by the item that fills it to {@code maxSize}.
+ * The swap takes a short lock shared with the timer; full batches then go through a queue drained
+ * by one thread at a time, so batches keep their order and are never delivered concurrently.
+ * Empty batches are not delivered.
+ */
+final class BufferTimedObserver<T> implements Observer<T>, Disposable, Runnable {
+    // Batches are pre-sized to maxSize, but an unbounded one should not allocate that much up front
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final Observer<List<T>> downstream;
+    private final long timespan;
+    private final TimeUnit unit;
+    private final int maxSize;
+    private final Scheduler scheduler;
+    private final Queue<List<T>> batches = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final DisposableReference upstream = new DisposableReference();
+    private final DisposableReference timer = new DisposableReference();
+    // Guarded by this; null once terminated
+    private List<T> buffer;
+    private volatile boolean done;
+    private volatile boolean disposed;
+    private Throwable error;
+
+    BufferTimedObserver(Observer<List<T>> downstream, long timespan, TimeUnit unit, int maxSize, Scheduler scheduler) {
+        this.downstream = downstream;
+        this.timespan = timespan;
+        this.unit = unit;
+        this.maxSize = maxSize;
+        this.scheduler = scheduler;
+        this.buffer = newBuffer();
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (upstream.set(d)) {
+            downstream.onSubscribe(this);
+            timer.set(scheduler.schedulePeriodically(this, timespan, timespan, unit, this::timerFailed));
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        synchronized (this) {
+            List<T> current = buffer;
+            if (current == null) {
+                return;
+            }
+            current.add(item);
+            if (current.size() < maxSize) {
+                return;
+            }
+            buffer = newBuffer();
+            batches.offer(current);
+        }
+        drain();
+    }
+
+    /**
+     * Timer tick: flushes whatever has been collected since the last batch.
+     */
+    @Override
+    public void run() {
+        synchronized (this) {
+            List<T> current = buffer;
+            if (current == null || current.isEmpty()) {
+                return;
+            }
+            buffer = newBuffer();
+            batches.offer(current);
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        synchronized (this) {
+            if (buffer == null) {
+                return;
+            }
+            buffer = null;
+            error = t;
+            done = true;
+        }
+        timer.dispose();
+        drain();
+    }
+
+    /**
+     * The periodic flush was rejected by the scheduler or threw, and its timer is already cancelled;
+     * the upstream is cancelled too and the error ends the stream.
+     */
+    private void timerFailed(Throwable t) {
+        upstream.dispose();
+        onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            List<T> current = buffer;
+            if (current == null) {
+                return;
+            }
+            buffer = null;
+            if (!current.isEmpty()) {
+                batches.offer(current);
+            }
+            done = true;
+        }
+        timer.dispose();
+        drain();
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        upstream.dispose();
+        timer.dispose();
+        if (wip.getAndIncrement() == 0) {
+            batches.clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private List<T> newBuffer() {
+        return new ArrayList<>(Math.min(maxSize, MAX_INITIAL_CAPACITY));
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (true) {
+                if (disposed) {
+                    batches.clear();
+                    return;
+                }
+                boolean d = done;
+                if (d && error != null) {
+                    // Leaves wip raised, so nothing can be delivered after the error
+                    batches.clear();
+                    downstream.onError(error);
+                    return;
+                }
+                List<T> batch = batches.poll();
+                if (d && batch == null) {
+                    downstream.onComplete();
+                    return;
+                }
+                if (batch == null) {
+                    break;
+                }
+                downstream.onNext(batch);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
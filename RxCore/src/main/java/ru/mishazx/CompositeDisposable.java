@@ -0,0 +1,50 @@
+package ru.mishazx;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of disposables that are disposed together, such as an operator's upstream and the
+ * inner subscriptions it has opened. Anything added after disposal is disposed at once.
+ */
+final class CompositeDisposable implements Disposable {
+    private final Set<Disposable> disposables = ConcurrentHashMap.newKeySet();
+    private volatile boolean disposed;
+
+    /**
+     * @return false if the group is already disposed, in which case {@code disposable} is disposed too
+     */
+    boolean add(Disposable disposable) {
+        if (!disposed) {
+            disposables.add(disposable);
+            // dispose() may have run between the check and the add
+            if (!disposed || !disposables.remove(disposable)) {
+                return true;
+            }
+        }
+        disposable.dispose();
+        return false;
+    }
+
+    void remove(Disposable disposable) {
+        disposables.remove(disposable);
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        for (Disposable disposable : disposables) {
+            if (disposables.remove(disposable)) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
@@ -1,18 +1,11 @@
 package ru.mishazx;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class ComputationScheduler implements Scheduler {
-    private final ExecutorService executor;
+public class ComputationScheduler extends ExecutorScheduler {
 
     public ComputationScheduler() {
-        int processors = Runtime.getRuntime().availableProcessors();
-        this.executor = Executors.newFixedThreadPool(processors);
+        super(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new SchedulerThreadFactory("RxComputation-")));
     }
-
-    @Override
-    public void execute(Runnable task) {
-        executor.execute(task);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Observable#delay}: every item and the completion are queued with the time they are due
+ * and one timer is scheduled for each. Whichever timer fires drains all signals that are due, so
+ * they keep their order and never reach the observer concurrently, even on a multi-threaded
+ * scheduler. An error is not delayed and drops the signals still waiting.
+ */
+final class DelayObserver<T> implements Observer<T>, Disposable, Runnable {
+    private static final Object COMPLETE = new Object();
+
+    private final Observer<T> downstream;
+    private final long delayNanos;
+    private final Scheduler scheduler;
+    private final Queue<Timed> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final DisposableReference upstream = new DisposableReference();
+    // Pending timers, so that disposing removes them from the timer queue instead of letting them fire
+    private final CompositeDisposable timers = new CompositeDisposable();
+    private volatile boolean done;
+    private volatile boolean disposed;
+    private volatile Throwable error;
+
+    DelayObserver(Observer<T> downstream, long delay, TimeUnit unit, Scheduler scheduler) {
+        this.downstream = downstream;
+        this.delayNanos = unit.toNanos(delay);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (upstream.set(d)) {
+            downstream.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (!done) {
+            enqueue(item);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            return;
+        }
+        error = t;
+        done = true;
+        timers.dispose();
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        enqueue(COMPLETE);
+    }
+
+    private void enqueue(Object value) {
+        queue.offer(new Timed(value, System.nanoTime() + delayNanos));
+        TimerTask task = new TimerTask();
+        if (timers.add(task)) {
+            task.set(scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        upstream.dispose();
+        timers.dispose();
+        if (wip.getAndIncrement() == 0) {
+            queue.clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            scheduler.execute(this);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+        int missed = 1;
+        do {
+            while (true) {
+                if (disposed) {
+                    queue.clear();
+                    return;
+                }
+                Throwable t = error;
+                if (t != null) {
+                    // Leaves wip raised, so nothing can be delivered after the error
+                    queue.clear();
+                    downstream.onError(t);
+                    return;
+                }
+                Timed head = queue.peek();
+                if (head == null || head.due - System.nanoTime() > 0) {
+                    break;
+                }
+                queue.poll();
+                if (head.value == COMPLETE) {
+                    downstream.onComplete();
+                    return;
+                }
+                downstream.onNext((T) head.value);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private record Timed(Object value, long due) {
+    }
+
+    /**
+     * One pending timer. It leaves {@link #timers} when it fires and then drains in place, as it
+     * already runs on the scheduler.
+     */
+    private final class TimerTask implements Runnable, Disposable {
+        private final DisposableReference timer = new DisposableReference();
+
+        void set(Disposable d) {
+            timer.set(d);
+        }
+
+        @Override
+        public void run() {
+            timers.remove(this);
+            if (wip.getAndIncrement() == 0) {
+                DelayObserver.this.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            timer.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return timer.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.mishazx;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outstanding {@code request(n)} totals. {@link Long#MAX_VALUE} means unbounded and is never
+ * decremented.
+ */
+final class Demand {
+
+    private Demand() {
+    }
+
+    /**
+     * Adds {@code n}, capping at {@link Long#MAX_VALUE}, and returns the previous total.
+     */
+    static long add(AtomicLong requested, long n) {
+        while (true) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return current;
+            }
+            long updated = current + n;
+            if (updated < 0) {
+                updated = Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, updated)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Subtracts {@code n} delivered items and returns the remaining total.
+     */
+    static long produced(AtomicLong requested, long n) {
+        while (true) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return current;
+            }
+            long updated = Math.max(0, current - n);
+            if (requested.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    static IllegalArgumentException invalidRequest(long n) {
+        return new IllegalArgumentException("request(n) needs a positive n, got " + n);
+    }
+}
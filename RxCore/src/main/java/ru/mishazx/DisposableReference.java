@@ -0,0 +1,44 @@
+package ru.mishazx;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the upstream {@link Disposable} of an operator. The upstream may arrive after the operator
+ * has already been disposed; it is then disposed on arrival.
+ */
+final class DisposableReference {
+    private static final Disposable DISPOSED = new Disposable() {
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return true;
+        }
+    };
+
+    private final AtomicReference<Disposable> reference = new AtomicReference<>();
+
+    /**
+     * @return false if this reference was disposed first, in which case {@code disposable} is disposed too
+     */
+    boolean set(Disposable disposable) {
+        if (reference.compareAndSet(null, disposable)) {
+            return true;
+        }
+        disposable.dispose();
+        return false;
+    }
+
+    void dispose() {
+        Disposable current = reference.getAndSet(DISPOSED);
+        if (current != null && current != DISPOSED) {
+            current.dispose();
+        }
+    }
+
+    boolean isDisposed() {
+        return reference.get() == DISPOSED;
+    }
+}
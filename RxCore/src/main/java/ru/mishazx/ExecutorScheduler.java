@@ -0,0 +1,22 @@
+package ru.mishazx;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on an {@link Executor} it does not own, such as a {@code MyCustomThreadPool} shared
+ * with imperative code. The scheduler never shuts the executor down, and an executor that rejects
+ * a task throws its exception to the caller of {@link #execute}.
+ */
+public class ExecutorScheduler implements Scheduler {
+    private final Executor executor;
+
+    public ExecutorScheduler(Executor executor) {
+        if (executor == null) throw new NullPointerException("Executor cannot be null");
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,253 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * {@link Observable#flatMap}: subscribes to an inner observable per item, at most
+ * {@code maxConcurrency} at a time; the rest wait in {@code pending} until an inner completes.
+ * Inner items are merged through a queue drained by one thread at a time, so the observer is never
+ * called concurrently; an inner that finds nobody draining delivers directly without queueing.
+ * The merged stream completes once the upstream and every inner have completed.
+ * <p>
+ * The upstream and every inner subscription share one {@link CompositeDisposable}, so disposing,
+ * an error or a failing mapper cancels all of them.
+ */
+final class FlatMapObserver<T, R> implements Observer<T>, Disposable {
+    // ConcurrentLinkedQueue rejects null items
+    private static final Object NULL = new Object();
+
+    private final Observer<R> downstream;
+    private final Function<T, Observable<R>> mapper;
+    private final int maxConcurrency;
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Queue<Observable<R>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    // Guards subscribePending, so an inner completing synchronously inside it does not recurse
+    private final AtomicInteger subscribeWip = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private volatile boolean done;
+    private volatile boolean disposed;
+
+    FlatMapObserver(Observer<R> downstream, Function<T, Observable<R>> mapper, int maxConcurrency) {
+        this.downstream = downstream;
+        this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (disposables.add(d)) {
+            downstream.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (done || disposed) {
+            return;
+        }
+        Observable<R> inner;
+        try {
+            inner = mapper.apply(item);
+            if (inner == null) throw new NullPointerException("flatMap mapper returned null");
+        } catch (Exception e) {
+            onError(e);
+            return;
+        }
+        if (maxConcurrency == Integer.MAX_VALUE) {
+            active.incrementAndGet();
+            inner.subscribeActual(new InnerObserver());
+        } else {
+            pending.offer(inner);
+            subscribePending();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (error.compareAndSet(null, t)) {
+            disposables.dispose();
+            drain();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        drain();
+    }
+
+    /**
+     * Cancels upstream and every inner, and drops whatever is still queued.
+     */
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        disposables.dispose();
+        if (wip.getAndIncrement() == 0) {
+            clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Takes a slot before polling, so a drain that sees {@code pending} empty also sees the slot
+     * of whoever took the last source. Only one caller subscribes at a time: a call made meanwhile,
+     * including one from an inner that completes synchronously during its subscribe, only bumps
+     * {@code subscribeWip}, and the running loop goes round again. A long run of synchronous inners
+     * therefore takes one stack frame, not one per inner.
+     */
+    private void subscribePending() {
+        if (subscribeWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            while (!pending.isEmpty()) {
+                int a = active.get();
+                if (a >= maxConcurrency) {
+                    break;
+                }
+                if (!active.compareAndSet(a, a + 1)) {
+                    continue;
+                }
+                Observable<R> inner = pending.poll();
+                if (inner == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+                if (disposed || error.get() != null) {
+                    active.decrementAndGet();
+                    break;
+                }
+                inner.subscribeActual(new InnerObserver());
+            }
+            missed = subscribeWip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void innerNext(R item) {
+        if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+            downstream.onNext(item);
+            if (wip.decrementAndGet() == 0) {
+                return;
+            }
+        } else {
+            queue.offer(item == null ? NULL : item);
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+        }
+        drainLoop();
+    }
+
+    private void innerComplete(Disposable upstream) {
+        if (upstream != null) {
+            disposables.remove(upstream);
+        }
+        active.decrementAndGet();
+        if (maxConcurrency != Integer.MAX_VALUE) {
+            subscribePending();
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() == 0) {
+            drainLoop();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainLoop() {
+        int missed = 1;
+        while (true) {
+            while (true) {
+                if (disposed) {
+                    clear();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    // Leaves wip raised, so nothing can be delivered after the terminal signal
+                    clear();
+                    downstream.onError(t);
+                    return;
+                }
+                // Checked in this order so that no source can start or emit unseen after the checks
+                boolean d = done && pending.isEmpty() && active.get() == 0;
+                Object item = queue.poll();
+                if (d && item == null) {
+                    downstream.onComplete();
+                    return;
+                }
+                if (item == null) {
+                    break;
+                }
+                downstream.onNext(item == NULL ? null : (R) item);
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void clear() {
+        queue.clear();
+        pending.clear();
+    }
+
+    private final class InnerObserver implements Observer<R> {
+        private Disposable upstream;
+        private boolean done;
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            disposables.add(d);
+        }
+
+        @Override
+        public void onNext(R item) {
+            if (!done) {
+                innerNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                FlatMapObserver.this.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                innerComplete(upstream);
+            }
+        }
+    }
+}
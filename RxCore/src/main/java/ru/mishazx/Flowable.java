@@ -0,0 +1,388 @@
+package ru.mishazx;
+
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * A stream with demand: a subscriber receives no more items than it has asked for with
+ * {@link Flow.Subscription#request(long)}. Unlike {@link Observable}, a slow subscriber therefore
+ * holds back the source instead of letting items pile up in scheduler queues. Flowable is a
+ * {@link Flow.Publisher}, so it works with any {@code java.util.concurrent.Flow} subscriber.
+ */
+public class Flowable<T> implements Flow.Publisher<T> {
+    /**
+     * Default prefetch of {@link #observeOn} and {@link #flatMap}, and default concurrency of flatMap.
+     */
+    public static final int BUFFER_SIZE = 128;
+
+    private final Flow.Publisher<T> source;
+
+    private Flowable(Flow.Publisher<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * Creates a flowable from a push source. The source may check {@link FlowableEmitter#requested()}
+     * to slow down; whatever it emits beyond the demand is handled by {@code strategy}.
+     */
+    public static <T> Flowable<T> create(Consumer<FlowableEmitter<T>> source, BackpressureStrategy strategy) {
+        if (source == null) throw new NullPointerException("Source cannot be null");
+        if (strategy == null) throw new NullPointerException("Backpressure strategy cannot be null");
+        return new Flowable<>(new FlowableCreate<>(source, strategy));
+    }
+
+    public static <T> Flowable<T> fromPublisher(Flow.Publisher<T> publisher) {
+        if (publisher == null) throw new NullPointerException("Publisher cannot be null");
+        if (publisher instanceof Flowable<T> flowable) {
+            return flowable;
+        }
+        return new Flowable<>(publisher);
+    }
+
+    /**
+     * Emits the elements of {@code iterable}, each only when it has been requested.
+     */
+    public static <T> Flowable<T> fromIterable(Iterable<T> iterable) {
+        if (iterable == null) throw new NullPointerException("Iterable cannot be null");
+        return new Flowable<>(subscriber -> {
+            Iterator<T> iterator;
+            try {
+                iterator = iterable.iterator();
+            } catch (Exception e) {
+                subscriber.onSubscribe(new IteratorSubscription<>(subscriber, null));
+                subscriber.onError(e);
+                return;
+            }
+            subscriber.onSubscribe(new IteratorSubscription<>(subscriber, iterator));
+        });
+    }
+
+    public static Flowable<Integer> range(int start, int count) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        return fromIterable(() -> IntStream.range(start, start + count).iterator());
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException("Subscriber cannot be null");
+        source.subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes with unbounded demand; the returned disposable cancels the subscription.
+     */
+    public Disposable subscribe(Consumer<T> onNext, Consumer<Throwable> onError, Runnable onComplete) {
+        LambdaSubscriber<T> subscriber = new LambdaSubscriber<>(onNext, onError, onComplete);
+        subscribe(subscriber);
+        return subscriber;
+    }
+
+    public <R> Flowable<R> map(Function<T, R> mapper) {
+        return new Flowable<>(subscriber -> subscribe(new MapSubscriber<>(subscriber, mapper)));
+    }
+
+    public Flowable<T> filter(Predicate<T> predicate) {
+        return new Flowable<>(subscriber -> subscribe(new FilterSubscriber<>(subscriber, predicate)));
+    }
+
+    public <R> Flowable<R> flatMap(Function<T, ? extends Flow.Publisher<? extends R>> mapper) {
+        return flatMap(mapper, BUFFER_SIZE, BUFFER_SIZE);
+    }
+
+    public <R> Flowable<R> flatMap(Function<T, ? extends Flow.Publisher<? extends R>> mapper, int maxConcurrency) {
+        return flatMap(mapper, maxConcurrency, BUFFER_SIZE);
+    }
+
+    /**
+     * Subscribes to at most {@code maxConcurrency} inner publishers at a time and requests
+     * {@code prefetch} items from each, so memory stays bounded however fast they produce.
+     */
+    public <R> Flowable<R> flatMap(Function<T, ? extends Flow.Publisher<? extends R>> mapper,
+                                   int maxConcurrency, int prefetch) {
+        if (mapper == null) throw new NullPointerException("Mapper cannot be null");
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("Max concurrency must be positive");
+        if (prefetch <= 0) throw new IllegalArgumentException("Prefetch must be positive");
+        return new Flowable<>(new FlowableFlatMap<>(this, mapper, maxConcurrency, prefetch));
+    }
+
+    public Flowable<T> subscribeOn(Scheduler scheduler) {
+        return new Flowable<>(subscriber -> scheduler.execute(() -> subscribe(subscriber)));
+    }
+
+    public Flowable<T> observeOn(Scheduler scheduler) {
+        return observeOn(scheduler, BUFFER_SIZE);
+    }
+
+    /**
+     * Delivers on {@code scheduler} while keeping at most {@code prefetch} items in flight.
+     */
+    public Flowable<T> observeOn(Scheduler scheduler, int prefetch) {
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        if (prefetch <= 0) throw new IllegalArgumentException("Prefetch must be positive");
+        return new Flowable<>(new FlowableObserveOn<>(this, scheduler, prefetch));
+    }
+
+    private static final class IteratorSubscription<T> implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> downstream;
+        private final Iterator<T> iterator;
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+
+        IteratorSubscription(Flow.Subscriber<? super T> downstream, Iterator<T> iterator) {
+            this.downstream = downstream;
+            this.iterator = iterator;
+            this.cancelled = iterator == null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                cancelled = true;
+                downstream.onError(Demand.invalidRequest(n));
+                return;
+            }
+            // Only the request that raises demand from zero emits; nested requests just add to it
+            if (Demand.add(requested, n) != 0) {
+                return;
+            }
+            long r = requested.get();
+            long e = 0;
+            while (true) {
+                while (e != r) {
+                    if (cancelled) {
+                        return;
+                    }
+                    T item;
+                    try {
+                        if (!iterator.hasNext()) {
+                            cancelled = true;
+                            downstream.onComplete();
+                            return;
+                        }
+                        item = iterator.next();
+                    } catch (Exception ex) {
+                        cancelled = true;
+                        downstream.onError(ex);
+                        return;
+                    }
+                    downstream.onNext(item);
+                    e++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                // Complete without waiting for a request that may never come
+                try {
+                    if (!iterator.hasNext()) {
+                        cancelled = true;
+                        downstream.onComplete();
+                        return;
+                    }
+                } catch (Exception ex) {
+                    cancelled = true;
+                    downstream.onError(ex);
+                    return;
+                }
+                r = requested.get();
+                if (e == r) {
+                    r = requested.addAndGet(-e);
+                    if (r == 0) {
+                        return;
+                    }
+                    e = 0;
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class MapSubscriber<T, R> implements Flow.Subscriber<T> {
+        private final Flow.Subscriber<? super R> downstream;
+        private final Function<T, R> mapper;
+        private Flow.Subscription upstream;
+        private boolean done;
+
+        MapSubscriber(Flow.Subscriber<? super R> downstream, Function<T, R> mapper) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            R mapped;
+            try {
+                mapped = mapper.apply(item);
+            } catch (Exception e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            downstream.onNext(mapped);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+    }
+
+    /**
+     * Requests a replacement for every item it drops, so the subscriber's demand is still met.
+     */
+    private static final class FilterSubscriber<T> implements Flow.Subscriber<T> {
+        private final Flow.Subscriber<? super T> downstream;
+        private final Predicate<T> predicate;
+        private Flow.Subscription upstream;
+        private boolean done;
+
+        FilterSubscriber(Flow.Subscriber<? super T> downstream, Predicate<T> predicate) {
+            this.downstream = downstream;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            boolean accepted;
+            try {
+                accepted = predicate.test(item);
+            } catch (Exception e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            if (accepted) {
+                downstream.onNext(item);
+            } else {
+                upstream.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+    }
+
+    private static final class LambdaSubscriber<T> implements Flow.Subscriber<T>, Disposable {
+        private final Consumer<T> onNext;
+        private final Consumer<Throwable> onError;
+        private final Runnable onComplete;
+        private volatile Flow.Subscription upstream;
+        private volatile boolean disposed;
+
+        LambdaSubscriber(Consumer<T> onNext, Consumer<Throwable> onError, Runnable onComplete) {
+            this.onNext = onNext;
+            this.onError = onError;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            if (disposed) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (disposed) {
+                return;
+            }
+            try {
+                onNext.accept(item);
+            } catch (Exception e) {
+                dispose();
+                onError.accept(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!disposed) {
+                disposed = true;
+                onError.accept(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!disposed) {
+                disposed = true;
+                onComplete.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
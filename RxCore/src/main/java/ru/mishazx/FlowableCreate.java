@@ -0,0 +1,368 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Source behind {@link Flowable#create}: hands the subscriber an emitter whose overflow handling
+ * follows the chosen {@link BackpressureStrategy}.
+ */
+final class FlowableCreate<T> implements Flow.Publisher<T> {
+    private static final Runnable CANCELLED = () -> { };
+
+    private final Consumer<FlowableEmitter<T>> source;
+    private final BackpressureStrategy strategy;
+
+    FlowableCreate(Consumer<FlowableEmitter<T>> source, BackpressureStrategy strategy) {
+        this.source = source;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        BaseEmitter<T> emitter = switch (strategy) {
+            case BUFFER -> new BufferEmitter<>(subscriber);
+            case LATEST -> new LatestEmitter<>(subscriber);
+            case DROP -> new DropEmitter<>(subscriber);
+            case ERROR -> new ErrorEmitter<>(subscriber);
+        };
+        subscriber.onSubscribe(emitter);
+        try {
+            source.accept(emitter);
+        } catch (Exception e) {
+            emitter.onError(e);
+        }
+    }
+
+    private abstract static class BaseEmitter<T> implements FlowableEmitter<T>, Flow.Subscription {
+        final Flow.Subscriber<? super T> downstream;
+        final AtomicLong requested = new AtomicLong();
+        private final AtomicReference<Runnable> onCancel = new AtomicReference<>();
+        volatile boolean cancelled;
+
+        BaseEmitter(Flow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                onError(Demand.invalidRequest(n));
+                return;
+            }
+            Demand.add(requested, n);
+            onRequested();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            release();
+            onCancelled();
+        }
+
+        @Override
+        public long requested() {
+            return requested.get();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Lets {@link Observable#toFlowable} subscribe the emitter directly and still be cancelled.
+         */
+        @Override
+        public void onSubscribe(Disposable d) {
+            setCancellable(d::dispose);
+        }
+
+        @Override
+        public void setCancellable(Runnable onCancel) {
+            if (!this.onCancel.compareAndSet(null, onCancel)) {
+                onCancel.run();
+            }
+        }
+
+        /**
+         * Runs the source's cancel action at most once.
+         */
+        void release() {
+            Runnable action = onCancel.getAndSet(CANCELLED);
+            if (action != null) {
+                action.run();
+            }
+        }
+
+        void onRequested() {
+        }
+
+        void onCancelled() {
+        }
+    }
+
+    /**
+     * DROP and ERROR: items are delivered on the source thread or not at all, so nothing is queued.
+     */
+    private abstract static class DirectEmitter<T> extends BaseEmitter<T> {
+        private volatile boolean done;
+
+        DirectEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done || cancelled) {
+                return;
+            }
+            if (item == null) {
+                onError(new NullPointerException("Flowable items cannot be null"));
+                return;
+            }
+            if (requested.get() > 0) {
+                downstream.onNext(item);
+                Demand.produced(requested, 1);
+            } else {
+                overflow(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done || cancelled) {
+                return;
+            }
+            done = true;
+            try {
+                downstream.onError(t);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done || cancelled) {
+                return;
+            }
+            done = true;
+            try {
+                downstream.onComplete();
+            } finally {
+                release();
+            }
+        }
+
+        abstract void overflow(T item);
+    }
+
+    private static final class DropEmitter<T> extends DirectEmitter<T> {
+
+        DropEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        void overflow(T item) {
+        }
+    }
+
+    private static final class ErrorEmitter<T> extends DirectEmitter<T> {
+
+        ErrorEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        void overflow(T item) {
+            onError(new MissingBackpressureException("Item emitted without demand: " + item));
+        }
+    }
+
+    /**
+     * BUFFER and LATEST: the source only stores items, and whichever thread wins {@code wip}
+     * delivers as many as have been requested. A request from the subscriber drains as well.
+     */
+    private abstract static class DrainEmitter<T> extends BaseEmitter<T> {
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+        private Throwable error;
+
+        DrainEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done || cancelled) {
+                return;
+            }
+            if (item == null) {
+                onError(new NullPointerException("Flowable items cannot be null"));
+                return;
+            }
+            offer(item);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done || cancelled) {
+                return;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done || cancelled) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        void onRequested() {
+            drain();
+        }
+
+        @Override
+        void onCancelled() {
+            if (wip.getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long r = requested.get();
+                long e = 0;
+                while (e != r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    boolean d = done;
+                    T item = poll();
+                    if (d && item == null) {
+                        terminate();
+                        return;
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                    downstream.onNext(item);
+                    e++;
+                }
+                if (e == r) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    if (done && isEmpty()) {
+                        terminate();
+                        return;
+                    }
+                }
+                if (e != 0) {
+                    Demand.produced(requested, e);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Leaves {@code wip} raised, so no later drain can signal again.
+         */
+        private void terminate() {
+            try {
+                if (error != null) {
+                    downstream.onError(error);
+                } else {
+                    downstream.onComplete();
+                }
+            } finally {
+                release();
+            }
+        }
+
+        abstract void offer(T item);
+
+        abstract T poll();
+
+        abstract boolean isEmpty();
+
+        abstract void clear();
+    }
+
+    private static final class BufferEmitter<T> extends DrainEmitter<T> {
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+        BufferEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        void offer(T item) {
+            queue.offer(item);
+        }
+
+        @Override
+        T poll() {
+            return queue.poll();
+        }
+
+        @Override
+        boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        void clear() {
+            queue.clear();
+        }
+    }
+
+    private static final class LatestEmitter<T> extends DrainEmitter<T> {
+        private final AtomicReference<T> latest = new AtomicReference<>();
+
+        LatestEmitter(Flow.Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        void offer(T item) {
+            latest.set(item);
+        }
+
+        @Override
+        T poll() {
+            return latest.getAndSet(null);
+        }
+
+        @Override
+        boolean isEmpty() {
+            return latest.get() == null;
+        }
+
+        @Override
+        void clear() {
+            latest.set(null);
+        }
+    }
+}
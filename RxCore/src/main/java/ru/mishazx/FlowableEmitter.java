@@ -0,0 +1,20 @@
+package ru.mishazx;
+
+/**
+ * The source side of {@link Flowable#create}. Calls must not overlap, as with any {@link Observer}.
+ * Items emitted beyond {@link #requested()} are handled by the flowable's {@link BackpressureStrategy}.
+ */
+public interface FlowableEmitter<T> extends Observer<T> {
+    /**
+     * Items the subscriber is still waiting for; a source that can slow down should stop at zero.
+     */
+    long requested();
+
+    boolean isCancelled();
+
+    /**
+     * Runs {@code onCancel} when the subscriber cancels or the flowable terminates, so the source
+     * can release what it holds. Runs it right away if that has already happened.
+     */
+    void setCancellable(Runnable onCancel);
+}
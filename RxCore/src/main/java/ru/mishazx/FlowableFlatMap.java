@@ -0,0 +1,268 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * {@link Flowable#flatMap}: keeps at most {@code maxConcurrency} inner publishers subscribed, each
+ * with its own queue of {@code prefetch} items, and merges them into one serialized stream as the
+ * subscriber requests. A new upstream item is requested only when an inner publisher finishes.
+ */
+final class FlowableFlatMap<T, R> implements Flow.Publisher<R> {
+    private final Flow.Publisher<T> source;
+    private final Function<T, ? extends Flow.Publisher<? extends R>> mapper;
+    private final int maxConcurrency;
+    private final int prefetch;
+
+    FlowableFlatMap(Flow.Publisher<T> source, Function<T, ? extends Flow.Publisher<? extends R>> mapper,
+                    int maxConcurrency, int prefetch) {
+        this.source = source;
+        this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        source.subscribe(new MergeSubscriber<>(subscriber, mapper, maxConcurrency, prefetch));
+    }
+
+    private static final class MergeSubscriber<T, R> implements Flow.Subscriber<T>, Flow.Subscription {
+        private final Flow.Subscriber<? super R> downstream;
+        private final Function<T, ? extends Flow.Publisher<? extends R>> mapper;
+        private final int maxConcurrency;
+        private final int prefetch;
+        private final Queue<InnerSubscriber<R>> inners = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private Flow.Subscription upstream;
+        private volatile boolean done;
+        volatile boolean cancelled;
+
+        MergeSubscriber(Flow.Subscriber<? super R> downstream, Function<T, ? extends Flow.Publisher<? extends R>> mapper,
+                        int maxConcurrency, int prefetch) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(maxConcurrency == Integer.MAX_VALUE ? Long.MAX_VALUE : maxConcurrency);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            Flow.Publisher<? extends R> inner;
+            try {
+                inner = mapper.apply(item);
+                if (inner == null) throw new NullPointerException("flatMap mapper returned null");
+            } catch (Exception e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            InnerSubscriber<R> subscriber = new InnerSubscriber<>(this, prefetch);
+            inners.add(subscriber);
+            inner.subscribe(subscriber);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            error.compareAndSet(null, t);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        void innerError(Throwable t) {
+            error.compareAndSet(null, t);
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                upstream.cancel();
+                innerError(Demand.invalidRequest(n));
+                return;
+            }
+            Demand.add(requested, n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            upstream.cancel();
+            cancelInners();
+            if (wip.getAndIncrement() == 0) {
+                inners.clear();
+            }
+        }
+
+        private void cancelInners() {
+            for (InnerSubscriber<R> inner : inners) {
+                inner.cancel();
+            }
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (checkTerminated()) {
+                    return;
+                }
+                long r = requested.get();
+                long e = 0;
+                int finished = 0;
+                for (InnerSubscriber<R> inner : inners) {
+                    while (e != r) {
+                        if (checkTerminated()) {
+                            return;
+                        }
+                        R item = inner.queue.poll();
+                        if (item == null) {
+                            break;
+                        }
+                        downstream.onNext(item);
+                        e++;
+                        inner.consumed();
+                    }
+                    if (inner.done && inner.queue.isEmpty()) {
+                        inners.remove(inner);
+                        finished++;
+                    }
+                }
+                if (e != 0) {
+                    Demand.produced(requested, e);
+                }
+                if (finished != 0 && !done && maxConcurrency != Integer.MAX_VALUE) {
+                    upstream.request(finished);
+                }
+                if (done && inners.isEmpty()) {
+                    if (!checkTerminated()) {
+                        downstream.onComplete();
+                    }
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * The first error from upstream or any inner publisher cancels everything else and is
+         * delivered at once. Returning true leaves {@code wip} raised so nothing follows it.
+         */
+        private boolean checkTerminated() {
+            if (cancelled) {
+                inners.clear();
+                return true;
+            }
+            Throwable t = error.get();
+            if (t != null) {
+                cancelled = true;
+                upstream.cancel();
+                cancelInners();
+                inners.clear();
+                downstream.onError(t);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class InnerSubscriber<R> implements Flow.Subscriber<R> {
+        private final MergeSubscriber<?, R> parent;
+        private final int prefetch;
+        private final int limit;
+        final Queue<R> queue;
+        private volatile Flow.Subscription upstream;
+        volatile boolean done;
+        // Delivered since the last request; touched only by the draining thread
+        private int consumed;
+
+        InnerSubscriber(MergeSubscriber<?, R> parent, int prefetch) {
+            this.parent = parent;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            if (parent.cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(R item) {
+            if (!queue.offer(item)) {
+                cancel();
+                parent.innerError(new MissingBackpressureException(
+                        "Inner publisher emitted more than the " + prefetch + " requested items"));
+                return;
+            }
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            parent.innerError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            parent.drain();
+        }
+
+        void consumed() {
+            if (++consumed == limit) {
+                consumed = 0;
+                upstream.request(limit);
+            }
+        }
+
+        void cancel() {
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
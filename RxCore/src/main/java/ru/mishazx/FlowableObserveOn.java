@@ -0,0 +1,178 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flowable#observeOn}: delivers on the scheduler through a queue of {@code prefetch} items.
+ * Upstream is never asked for more than the queue can hold, and is asked for the next
+ * three quarters of it once that many have been delivered, so a slow subscriber holds back the
+ * source instead of growing a queue.
+ */
+final class FlowableObserveOn<T> implements Flow.Publisher<T> {
+    private final Flow.Publisher<T> source;
+    private final Scheduler scheduler;
+    private final int prefetch;
+
+    FlowableObserveOn(Flow.Publisher<T> source, Scheduler scheduler, int prefetch) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        source.subscribe(new ObserveOnSubscriber<>(subscriber, scheduler, prefetch));
+    }
+
+    private static final class ObserveOnSubscriber<T> implements Flow.Subscriber<T>, Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> downstream;
+        private final Scheduler scheduler;
+        private final int prefetch;
+        private final int limit;
+        private final Queue<T> queue;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private Flow.Subscription upstream;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private Throwable error;
+        // Delivered since the last upstream request; touched only by the draining thread
+        private int consumed;
+
+        ObserveOnSubscriber(Flow.Subscriber<? super T> downstream, Scheduler scheduler, int prefetch) {
+            this.downstream = downstream;
+            this.scheduler = scheduler;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                upstream.cancel();
+                error = new MissingBackpressureException("Upstream emitted more than the " + prefetch + " requested items");
+                done = true;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                upstream.cancel();
+                onError(Demand.invalidRequest(n));
+                return;
+            }
+            Demand.add(requested, n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            upstream.cancel();
+            if (wip.getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                scheduler.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                long r = requested.get();
+                long e = 0;
+                while (e != r) {
+                    boolean d = done;
+                    T item = queue.poll();
+                    if (checkTerminated(d, item == null)) {
+                        return;
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                    downstream.onNext(item);
+                    e++;
+                    if (++consumed == limit) {
+                        consumed = 0;
+                        upstream.request(limit);
+                    }
+                }
+                if (e == r && checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+                if (e != 0) {
+                    Demand.produced(requested, e);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * An error is delivered at once, ahead of queued items; completion waits for the queue to
+         * empty. Returning true leaves {@code wip} raised so nothing is signalled afterwards.
+         */
+        private boolean checkTerminated(boolean d, boolean empty) {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (!d) {
+                return false;
+            }
+            if (error != null) {
+                queue.clear();
+                downstream.onError(error);
+                return true;
+            }
+            if (empty) {
+                downstream.onComplete();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,17 +1,10 @@
 package ru.mishazx;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class IOThreadScheduler implements Scheduler {
-    private final ExecutorService executor;
+public class IOThreadScheduler extends ExecutorScheduler {
 
     public IOThreadScheduler() {
-        this.executor = Executors.newCachedThreadPool();
+        super(Executors.newCachedThreadPool(new SchedulerThreadFactory("RxIo-")));
     }
-
-    @Override
-    public void execute(Runnable task) {
-        executor.execute(task);
-    }
-} 
+}
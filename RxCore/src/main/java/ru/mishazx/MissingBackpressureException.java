@@ -0,0 +1,12 @@
+package ru.mishazx;
+
+/**
+ * Signalled when a source emits more items than were requested and there is nowhere to keep them.
+ */
+public class MissingBackpressureException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MissingBackpressureException(String message) {
+        super(message);
+    }
+}
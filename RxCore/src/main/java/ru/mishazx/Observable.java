@@ -1,62 +1,110 @@
 package ru.mishazx;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Observable<T> {
     private final Consumer<Observer<T>> source;
+    // Set when this observable is a run of fused map/filter stages over fusedSource
+    private final Observable<?> fusedSource;
+    private final Stage[] stages;
 
     private Observable(Consumer<Observer<T>> source) {
         this.source = source;
+        this.fusedSource = null;
+        this.stages = null;
     }
 
-    public static <T> Observable<T> create(Consumer<Observer<T>> source) {
-        return new Observable<>(source);
+    @SuppressWarnings("unchecked")
+    private Observable(Observable<?> fusedSource, Stage[] stages) {
+        this.source = observer -> ((Observable<Object>) fusedSource).subscribeActual(new FusedObserver<>(observer, stages));
+        this.fusedSource = fusedSource;
+        this.stages = stages;
     }
 
-    public Disposable subscribe(Observer<T> observer) {
-        AtomicBoolean disposed = new AtomicBoolean(false);
-        try {
-            source.accept(new Observer<T>() {
-                @Override
-                public void onNext(T item) {
-                    if (!disposed.get()) {
-                        observer.onNext(item);
-                    }
-                }
+    /**
+     * The source receives its emitter before emitting and should stop once
+     * {@link ObservableEmitter#isDisposed()} turns true.
+     */
+    public static <T> Observable<T> create(Consumer<ObservableEmitter<T>> source) {
+        return new Observable<>(observer -> {
+            CreateEmitter<T> emitter = new CreateEmitter<>(observer);
+            observer.onSubscribe(emitter);
+            try {
+                source.accept(emitter);
+            } catch (Exception e) {
+                emitter.onError(e);
+            }
+        });
+    }
 
-                @Override
-                public void onError(Throwable t) {
-                    if (!disposed.get()) {
-                        observer.onError(t);
-                    }
-                }
+    /**
+     * Emits 0, 1, 2, ... every {@code period} on the computation scheduler until disposed.
+     */
+    public static Observable<Long> interval(long period, TimeUnit unit) {
+        return interval(period, period, unit, Schedulers.computation());
+    }
 
-                @Override
-                public void onComplete() {
-                    if (!disposed.get()) {
-                        observer.onComplete();
-                    }
-                }
-            });
+    public static Observable<Long> interval(long period, TimeUnit unit, Scheduler scheduler) {
+        return interval(period, period, unit, scheduler);
+    }
+
+    /**
+     * Emits 0 after {@code initialDelay}, then the next number every {@code period}. Between ticks
+     * the subscription holds no thread, only an entry in the scheduler's timer queue.
+     */
+    public static Observable<Long> interval(long initialDelay, long period, TimeUnit unit, Scheduler scheduler) {
+        if (unit == null) throw new NullPointerException("Time unit cannot be null");
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive");
+        return new Observable<>(observer -> {
+            IntervalTask task = new IntervalTask(observer);
+            observer.onSubscribe(task);
+            task.set(scheduler.schedulePeriodically(task, initialDelay, period, unit, task::fail));
+        });
+    }
+
+    /**
+     * Emits 0 after {@code delay} on the computation scheduler and completes.
+     */
+    public static Observable<Long> timer(long delay, TimeUnit unit) {
+        return timer(delay, unit, Schedulers.computation());
+    }
+
+    public static Observable<Long> timer(long delay, TimeUnit unit, Scheduler scheduler) {
+        if (unit == null) throw new NullPointerException("Time unit cannot be null");
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        return new Observable<>(observer -> {
+            TimerTask task = new TimerTask(observer);
+            observer.onSubscribe(task);
+            task.set(scheduler.schedule(task, delay, unit));
+        });
+    }
+
+    /**
+     * The returned disposable is also passed to {@link Observer#onSubscribe} before the first item.
+     * Disposing it cancels the whole operator chain up to the source, not just delivery.
+     */
+    public Disposable subscribe(Observer<T> observer) {
+        SafeObserver<T> safe = new SafeObserver<>(observer);
+        subscribeActual(safe);
+        return safe;
+    }
+
+    /**
+     * Subscribes without the {@link SafeObserver} wrapper; operators use it to chain to their upstream.
+     */
+    void subscribeActual(Observer<T> observer) {
+        try {
+            source.accept(observer);
         } catch (Exception e) {
-            if (!disposed.get()) {
-                observer.onError(e);
-            }
+            observer.onError(e);
         }
-        return new Disposable() {
-            @Override
-            public void dispose() {
-                disposed.set(true);
-            }
-
-            @Override
-            public boolean isDisposed() {
-                return disposed.get();
-            }
-        };
     }
 
     public Disposable subscribe(Consumer<T> onNext, Consumer<Throwable> onError, Runnable onComplete) {
@@ -78,69 +126,411 @@ public class Observable<T> {
         });
     }
 
+    /**
+     * Consecutive map and filter calls are fused at assembly time: the chain subscribes to the
+     * source once, through a single observer that applies every stage in a loop.
+     */
+    @SuppressWarnings("unchecked")
     public <R> Observable<R> map(Function<T, R> mapper) {
-        return new Observable<>(observer -> subscribe(
-                item -> {
-                    try {
-                        observer.onNext(mapper.apply(item));
-                    } catch (Exception e) {
-                        observer.onError(e);
-                    }
-                },
-                observer::onError,
-                observer::onComplete
-        ));
+        return fuse(new Stage((Function<Object, Object>) mapper, null));
     }
 
+    @SuppressWarnings("unchecked")
     public Observable<T> filter(Predicate<T> predicate) {
-        return new Observable<>(observer -> subscribe(
-                item -> {
-                    try {
-                        if (predicate.test(item)) {
-                            observer.onNext(item);
-                        }
-                    } catch (Exception e) {
-                        observer.onError(e);
-                    }
-                },
-                observer::onError,
-                observer::onComplete
-        ));
+        return fuse(new Stage(null, (Predicate<Object>) predicate));
+    }
+
+    private <R> Observable<R> fuse(Stage stage) {
+        if (stages == null) {
+            return new Observable<>(this, new Stage[]{stage});
+        }
+        Stage[] fused = Arrays.copyOf(stages, stages.length + 1);
+        fused[stages.length] = stage;
+        return new Observable<>(fusedSource, fused);
     }
 
     public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper) {
-        return new Observable<>(observer -> {
-            AtomicBoolean disposed = new AtomicBoolean(false);
-            subscribe(
-                    item -> {
-                        if (!disposed.get()) {
-                            try {
-                                Observable<R> innerObservable = mapper.apply(item);
-                                innerObservable.subscribe(
-                                        observer::onNext,
-                                        observer::onError,
-                                        () -> {} // Don't complete when inner completes
-                                );
-                            } catch (Exception e) {
-                                observer.onError(e);
-                            }
-                        }
-                    },
-                    observer::onError,
-                    observer::onComplete
-            );
-        });
+        return flatMap(mapper, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Subscribes to at most {@code maxConcurrency} inner observables at a time; the next one starts
+     * when an inner completes. Items are merged into one serialized stream, which completes after
+     * the source and every inner have completed.
+     */
+    public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper, int maxConcurrency) {
+        if (mapper == null) throw new NullPointerException("Mapper cannot be null");
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("Max concurrency must be positive");
+        return new Observable<>(observer -> subscribeActual(new FlatMapObserver<>(observer, mapper, maxConcurrency)));
+    }
+
+    /**
+     * Groups items into lists of {@code count}; the last list may be shorter. Each list is allocated
+     * at full size once and then belongs to the observer.
+     */
+    public Observable<List<T>> buffer(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Count must be positive");
+        return new Observable<>(observer -> subscribeActual(new BufferObserver<>(observer, count)));
+    }
+
+    /**
+     * Delivers what has arrived every {@code timespan} on the computation scheduler.
+     */
+    public Observable<List<T>> buffer(long timespan, TimeUnit unit) {
+        return buffer(timespan, unit, Integer.MAX_VALUE, Schedulers.computation());
+    }
+
+    public Observable<List<T>> buffer(long timespan, TimeUnit unit, int maxSize) {
+        return buffer(timespan, unit, maxSize, Schedulers.computation());
+    }
+
+    /**
+     * Delivers what has arrived every {@code timespan}, or as soon as {@code maxSize} items have
+     * arrived, whichever comes first; the rest is delivered on completion. Periods with no items
+     * produce no list.
+     */
+    public Observable<List<T>> buffer(long timespan, TimeUnit unit, int maxSize, Scheduler scheduler) {
+        if (unit == null) throw new NullPointerException("Time unit cannot be null");
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        if (timespan <= 0) throw new IllegalArgumentException("Timespan must be positive");
+        if (maxSize <= 0) throw new IllegalArgumentException("Max size must be positive");
+        return new Observable<>(observer ->
+                subscribeActual(new BufferTimedObserver<>(observer, timespan, unit, maxSize, scheduler)));
+    }
+
+    /**
+     * Splits the stream into windows of {@code count} items. Each window is emitted when its first
+     * item arrives and can be subscribed once; items are kept until it is.
+     */
+    public Observable<Observable<T>> window(int count) {
+        if (count <= 0) throw new IllegalArgumentException("Count must be positive");
+        return new Observable<>(observer -> subscribeActual(new WindowObserver<>(observer, count)));
+    }
+
+    /**
+     * Bridges to a {@link Flowable}. Observable has no demand, so {@code strategy} decides what
+     * happens to items the subscriber has not requested yet.
+     */
+    public Flowable<T> toFlowable(BackpressureStrategy strategy) {
+        return Flowable.create(this::subscribeActual, strategy);
     }
 
+    /**
+     * Subscribes to the source on {@code scheduler}. Disposing before the scheduled task starts
+     * turns it into a no-op, so the source is never subscribed.
+     */
     public Observable<T> subscribeOn(Scheduler scheduler) {
-        return new Observable<>(observer -> scheduler.execute(() -> subscribe(observer)));
+        return new Observable<>(observer -> {
+            SubscribeOnObserver<T> task = new SubscribeOnObserver<>(this, observer);
+            observer.onSubscribe(task);
+            scheduler.execute(task);
+        });
     }
 
+    /**
+     * Delivers signals on {@code scheduler} in their original order and one at a time, through a
+     * queue drained in batches rather than one scheduled task per item.
+     */
     public Observable<T> observeOn(Scheduler scheduler) {
-        return new Observable<>(observer -> subscribe(
-                item -> scheduler.execute(() -> observer.onNext(item)),
-                error -> scheduler.execute(() -> observer.onError(error)),
-                () -> scheduler.execute(observer::onComplete)
-        ));
+        return new Observable<>(observer -> subscribeActual(new ObserveOnObserver<>(observer, scheduler)));
+    }
+
+    /**
+     * Shifts items and completion by {@code delay} on the computation scheduler, keeping their order.
+     */
+    public Observable<T> delay(long delay, TimeUnit unit) {
+        return delay(delay, unit, Schedulers.computation());
+    }
+
+    /**
+     * Shifts items and completion by {@code delay}, delivering them on {@code scheduler} in their
+     * original order. Errors are delivered at once and drop the items still waiting.
+     */
+    public Observable<T> delay(long delay, TimeUnit unit, Scheduler scheduler) {
+        if (unit == null) throw new NullPointerException("Time unit cannot be null");
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        return new Observable<>(observer -> subscribeActual(new DelayObserver<>(observer, delay, unit, scheduler)));
+    }
+
+    public Observable<T> timeout(long timeout, TimeUnit unit) {
+        return timeout(timeout, unit, Schedulers.computation());
+    }
+
+    /**
+     * Fails with {@link java.util.concurrent.TimeoutException} and disposes the source if the first
+     * item, or the next one after an item, does not arrive within {@code timeout}.
+     */
+    public Observable<T> timeout(long timeout, TimeUnit unit, Scheduler scheduler) {
+        if (unit == null) throw new NullPointerException("Time unit cannot be null");
+        if (scheduler == null) throw new NullPointerException("Scheduler cannot be null");
+        return new Observable<>(observer -> subscribeActual(new TimeoutObserver<>(observer, timeout, unit, scheduler)));
+    }
+
+    /**
+     * One map or filter step of a fused chain; exactly one of the two is set.
+     */
+    private record Stage(Function<Object, Object> mapper, Predicate<Object> predicate) {
+    }
+
+    private static final class FusedObserver<R> implements Observer<Object> {
+        private final Observer<R> downstream;
+        private final Stage[] stages;
+        private Disposable upstream;
+        private boolean done;
+
+        FusedObserver(Observer<R> downstream, Stage[] stages) {
+            this.downstream = downstream;
+            this.stages = stages;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(d);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(Object item) {
+            if (done) {
+                return;
+            }
+            Object value = item;
+            try {
+                for (Stage stage : stages) {
+                    if (stage.mapper != null) {
+                        value = stage.mapper.apply(value);
+                    } else if (!stage.predicate.test(value)) {
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                if (upstream != null) {
+                    upstream.dispose();
+                }
+                onError(e);
+                return;
+            }
+            downstream.onNext((R) value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+    }
+
+    /**
+     * A tick of {@link #interval}. Ticks never overlap, so the counter needs no synchronization.
+     */
+    private static final class IntervalTask implements Runnable, Disposable {
+        private final Observer<Long> downstream;
+        private final DisposableReference timer = new DisposableReference();
+        private long count;
+
+        IntervalTask(Observer<Long> downstream) {
+            this.downstream = downstream;
+        }
+
+        void set(Disposable d) {
+            timer.set(d);
+        }
+
+        @Override
+        public void run() {
+            if (!timer.isDisposed()) {
+                downstream.onNext(count++);
+            }
+        }
+
+        /**
+         * The scheduler rejected a tick or the observer threw; the timer is already cancelled.
+         */
+        void fail(Throwable t) {
+            if (!timer.isDisposed()) {
+                timer.dispose();
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            timer.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return timer.isDisposed();
+        }
+    }
+
+    private static final class TimerTask implements Runnable, Disposable {
+        private final Observer<Long> downstream;
+        private final DisposableReference timer = new DisposableReference();
+
+        TimerTask(Observer<Long> downstream) {
+            this.downstream = downstream;
+        }
+
+        void set(Disposable d) {
+            timer.set(d);
+        }
+
+        @Override
+        public void run() {
+            if (!timer.isDisposed()) {
+                downstream.onNext(0L);
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            timer.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return timer.isDisposed();
+        }
+    }
+
+    private static final class CreateEmitter<T> implements ObservableEmitter<T>, Disposable {
+        private static final Runnable DISPOSED = () -> { };
+
+        private final Observer<T> downstream;
+        private final AtomicReference<Runnable> onDispose = new AtomicReference<>();
+        private volatile boolean disposed;
+
+        CreateEmitter(Observer<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        /**
+         * Lets a source forward another observable into this emitter and still be cancelled.
+         */
+        @Override
+        public void onSubscribe(Disposable d) {
+            setCancellable(d::dispose);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!disposed) {
+                downstream.onNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (disposed) {
+                return;
+            }
+            try {
+                downstream.onError(t);
+            } finally {
+                dispose();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (disposed) {
+                return;
+            }
+            try {
+                downstream.onComplete();
+            } finally {
+                dispose();
+            }
+        }
+
+        @Override
+        public void setCancellable(Runnable onDispose) {
+            if (!this.onDispose.compareAndSet(null, onDispose)) {
+                onDispose.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            Runnable action = onDispose.getAndSet(DISPOSED);
+            if (action != null) {
+                action.run();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Outermost observer of {@link #subscribe(Observer)}: drops signals after disposal or a
+     * terminal signal, and forwards disposal upstream.
+     */
+    private static final class SafeObserver<T> implements Observer<T>, Disposable {
+        private final Observer<T> downstream;
+        private final DisposableReference upstream = new DisposableReference();
+        private volatile boolean done;
+
+        SafeObserver(Observer<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if (upstream.set(d)) {
+                downstream.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!done && !upstream.isDisposed()) {
+                downstream.onNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done && !upstream.isDisposed()) {
+                done = true;
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done && !upstream.isDisposed()) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            upstream.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return done || upstream.isDisposed();
+        }
     }
-}
\ No newline at end of file
+}
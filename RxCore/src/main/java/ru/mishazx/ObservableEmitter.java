@@ -0,0 +1,19 @@
+package ru.mishazx;
+
+/**
+ * The source side of {@link Observable#create}. It is handed to the source before anything is
+ * emitted, so a long-running source can stop as soon as the subscriber disposes.
+ */
+public interface ObservableEmitter<T> extends Observer<T> {
+    /**
+     * True once the subscriber has disposed or a terminal signal has been sent; further items are
+     * dropped, so the source should stop producing them.
+     */
+    boolean isDisposed();
+
+    /**
+     * Runs {@code onDispose} when the subscription is disposed or terminates, so the source can
+     * release what it holds. Runs it right away if that has already happened.
+     */
+    void setCancellable(Runnable onDispose);
+}
@@ -0,0 +1,131 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Observable#observeOn}: signals are queued per subscription and delivered by one scheduled
+ * task at a time, so the observer sees them in order and never concurrently, even on a
+ * multi-threaded scheduler. The task drains everything that has arrived; after
+ * {@link #BATCH_SIZE} items it reschedules itself instead of holding the thread.
+ */
+final class ObserveOnObserver<T> implements Observer<T>, Disposable, Runnable {
+    static final int BATCH_SIZE = 128;
+    // ConcurrentLinkedQueue rejects null items
+    private static final Object NULL = new Object();
+
+    private final Observer<T> downstream;
+    private final Scheduler scheduler;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final DisposableReference upstream = new DisposableReference();
+    private volatile boolean done;
+    private volatile boolean disposed;
+    private Throwable error;
+
+    ObserveOnObserver(Observer<T> downstream, Scheduler scheduler) {
+        this.downstream = downstream;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (upstream.set(d)) {
+            downstream.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (done) {
+            return;
+        }
+        queue.offer(item == null ? NULL : item);
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            return;
+        }
+        error = t;
+        done = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        schedule();
+    }
+
+    /**
+     * Cancels upstream and drops whatever is still queued.
+     */
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        upstream.dispose();
+        if (wip.getAndIncrement() == 0) {
+            queue.clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            scheduler.execute(this);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+        int missed = 1;
+        int emitted = 0;
+        while (true) {
+            while (true) {
+                if (disposed) {
+                    queue.clear();
+                    return;
+                }
+                boolean d = done;
+                Object item = queue.poll();
+                if (d && item == null) {
+                    // Leaves wip raised, so nothing can be delivered after the terminal signal
+                    if (error != null) {
+                        downstream.onError(error);
+                    } else {
+                        downstream.onComplete();
+                    }
+                    return;
+                }
+                if (item == null) {
+                    break;
+                }
+                downstream.onNext(item == NULL ? null : (T) item);
+                if (++emitted == BATCH_SIZE) {
+                    // wip stays raised, so producers keep queueing without scheduling a second drain
+                    scheduler.execute(this);
+                    return;
+                }
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+}
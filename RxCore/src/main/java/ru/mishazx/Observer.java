@@ -1,6 +1,13 @@
 package ru.mishazx;
 
 public interface Observer<T> {
+    /**
+     * Called once before any other signal with the disposable that cancels this subscription
+     * upstream. Observers that never cancel early can ignore it.
+     */
+    default void onSubscribe(Disposable d) {
+    }
+
     void onNext(T item);
     void onError(Throwable t);
     void onComplete();
@@ -1,5 +1,38 @@
 package ru.mishazx;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 public interface Scheduler {
     void execute(Runnable task);
+
+    /**
+     * Runs the task on this scheduler after {@code delay}. While it waits it sits in a shared timer
+     * queue, not in a thread of this scheduler. Disposing before it runs cancels it.
+     */
+    default Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        return SchedulerTimer.schedule(this, task, delay, unit);
+    }
+
+    /**
+     * Runs the task on this scheduler after {@code initialDelay} and then every {@code period}
+     * until disposed. Runs never overlap: a tick that comes while the previous run is still going
+     * is run right after it.
+     */
+    default Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return schedulePeriodically(task, initialDelay, period, unit, error -> {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, error);
+        });
+    }
+
+    /**
+     * Like {@link #schedulePeriodically(Runnable, long, long, TimeUnit)}, but if this scheduler
+     * rejects a run or the task throws, the timer is cancelled and the exception is passed to
+     * {@code onFailure}. The variant above passes it to the uncaught exception handler instead.
+     */
+    default Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit,
+                                            Consumer<Throwable> onFailure) {
+        return SchedulerTimer.schedulePeriodically(this, task, initialDelay, period, unit, onFailure);
+    }
 }
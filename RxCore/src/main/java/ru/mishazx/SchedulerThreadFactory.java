@@ -0,0 +1,24 @@
+package ru.mishazx;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Names the threads of the built-in schedulers and makes them daemons, since the shared
+ * schedulers in {@link Schedulers} are never shut down and must not keep the JVM alive.
+ */
+class SchedulerThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    SchedulerThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, prefix + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
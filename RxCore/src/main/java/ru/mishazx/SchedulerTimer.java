@@ -0,0 +1,129 @@
+package ru.mishazx;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The single daemon thread behind {@link Scheduler#schedule} and
+ * {@link Scheduler#schedulePeriodically}. It only keeps pending timers and, when one comes due,
+ * hands the task to the target scheduler, so any number of waiting timers costs one thread in
+ * total. Cancelled timers are removed from its queue at once.
+ */
+final class SchedulerTimer {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private SchedulerTimer() {
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new SchedulerThreadFactory("RxTimer-"));
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    static Disposable schedule(Scheduler scheduler, Runnable task, long delay, TimeUnit unit) {
+        TimedTask timed = new TimedTask(task);
+        timed.future = TIMER.schedule(() -> dispatch(scheduler, timed), Math.max(0, delay), unit);
+        return timed;
+    }
+
+    static Disposable schedulePeriodically(Scheduler scheduler, Runnable task, long initialDelay, long period,
+                                           TimeUnit unit, Consumer<Throwable> onFailure) {
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive");
+        if (onFailure == null) throw new NullPointerException("Failure handler cannot be null");
+        PeriodicTask periodic = new PeriodicTask(task, onFailure);
+        periodic.future = TIMER.scheduleAtFixedRate(
+                () -> periodic.tick(scheduler), Math.max(0, initialDelay), period, unit);
+        return periodic;
+    }
+
+    private static void dispatch(Scheduler scheduler, TimedTask task) {
+        if (!task.disposed) {
+            scheduler.execute(task);
+        }
+    }
+
+    private static class TimedTask implements Runnable, Disposable {
+        final Runnable task;
+        volatile Future<?> future;
+        volatile boolean disposed;
+
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // Disposal may have happened after the timer handed the task to the scheduler
+            if (!disposed) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            Future<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Counts ticks so that only one run is in the scheduler at a time; ticks that arrive meanwhile
+     * are run by that same task before it returns. A run the scheduler rejects, or one that throws,
+     * leaves the count raised, so no later tick would ever start another run: the timer is
+     * cancelled and the failure reported instead of the ticks stopping silently.
+     */
+    private static final class PeriodicTask extends TimedTask {
+        private final AtomicInteger pendingTicks = new AtomicInteger();
+        private final Consumer<Throwable> onFailure;
+
+        PeriodicTask(Runnable task, Consumer<Throwable> onFailure) {
+            super(task);
+            this.onFailure = onFailure;
+        }
+
+        void tick(Scheduler scheduler) {
+            if (!disposed && pendingTicks.getAndIncrement() == 0) {
+                try {
+                    scheduler.execute(this);
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            try {
+                do {
+                    for (int i = 0; i < missed && !disposed; i++) {
+                        task.run();
+                    }
+                    missed = pendingTicks.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(RuntimeException e) {
+            // Disposed meanwhile: nobody is waiting for the ticks any more
+            if (!disposed) {
+                dispose();
+                onFailure.accept(e);
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.mishazx;
 
+import java.util.concurrent.Executor;
+
 public class Schedulers {
     private static final Scheduler IO = new IOThreadScheduler();
     private static final Scheduler COMPUTATION = new ComputationScheduler();
     private static final Scheduler SINGLE = new SingleThreadScheduler();
+    private static final Scheduler VIRTUAL = new VirtualThreadScheduler();
 
     private Schedulers() {
         // Utility class, no instances needed
@@ -20,4 +23,28 @@ public class Schedulers {
     public static Scheduler single() {
         return SINGLE;
     }
+
+    /**
+     * Runs each task on its own virtual thread, with no limit; suited to many concurrent
+     * subscriptions that spend most of their time blocked on I/O.
+     */
+    public static Scheduler virtual() {
+        return VIRTUAL;
+    }
+
+    /**
+     * Like {@link #virtual()}, but runs at most {@code maxConcurrency} tasks at a time, for example
+     * to stay within a connection pool; the rest wait in a queue. Each call creates a new scheduler.
+     */
+    public static Scheduler virtual(int maxConcurrency) {
+        return new VirtualThreadScheduler(maxConcurrency);
+    }
+
+    /**
+     * Wraps an executor the caller owns, for example a {@code MyCustomThreadPool}, so that reactive
+     * and imperative code share one pool. The executor is not shut down by the scheduler.
+     */
+    public static Scheduler from(Executor executor) {
+        return new ExecutorScheduler(executor);
+    }
 } 
@@ -1,17 +1,10 @@
 package ru.mishazx;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class SingleThreadScheduler implements Scheduler {
-    private final ExecutorService executor;
+public class SingleThreadScheduler extends ExecutorScheduler {
 
     public SingleThreadScheduler() {
-        this.executor = Executors.newSingleThreadExecutor();
+        super(Executors.newSingleThreadExecutor(new SchedulerThreadFactory("RxSingle-")));
     }
-
-    @Override
-    public void execute(Runnable task) {
-        executor.execute(task);
-    }
-} 
+}
@@ -0,0 +1,54 @@
+package ru.mishazx;
+
+/**
+ * {@link Observable#subscribeOn}: the scheduled task that subscribes to the source, and the
+ * disposable the subscriber holds meanwhile. Disposed before it runs, the task does nothing.
+ */
+final class SubscribeOnObserver<T> implements Observer<T>, Disposable, Runnable {
+    private final Observable<T> source;
+    private final Observer<T> downstream;
+    private final DisposableReference upstream = new DisposableReference();
+
+    SubscribeOnObserver(Observable<T> source, Observer<T> downstream) {
+        this.source = source;
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void run() {
+        if (!upstream.isDisposed()) {
+            source.subscribeActual(this);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        // Downstream already holds this task as its disposable
+        upstream.set(d);
+    }
+
+    @Override
+    public void onNext(T item) {
+        downstream.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        downstream.onComplete();
+    }
+
+    @Override
+    public void dispose() {
+        upstream.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream.isDisposed();
+    }
+}
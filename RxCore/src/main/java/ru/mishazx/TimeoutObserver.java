@@ -0,0 +1,104 @@
+package ru.mishazx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Observable#timeout}: a timer is armed on subscription and re-armed after every item. The
+ * item index decides the race between an item and the timer: whichever moves it first wins, so
+ * the observer never sees an item after the {@link TimeoutException}.
+ */
+final class TimeoutObserver<T> implements Observer<T>, Disposable {
+    private static final long TERMINATED = Long.MAX_VALUE;
+
+    private final Observer<T> downstream;
+    private final long timeout;
+    private final TimeUnit unit;
+    private final Scheduler scheduler;
+    private final AtomicLong index = new AtomicLong();
+    private final DisposableReference upstream = new DisposableReference();
+    private final AtomicReference<Disposable> timer = new AtomicReference<>();
+
+    TimeoutObserver(Observer<T> downstream, long timeout, TimeUnit unit, Scheduler scheduler) {
+        this.downstream = downstream;
+        this.timeout = timeout;
+        this.unit = unit;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        if (upstream.set(d)) {
+            downstream.onSubscribe(this);
+            startTimer(0);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        long i = index.get();
+        if (i == TERMINATED || !index.compareAndSet(i, i + 1)) {
+            return;
+        }
+        cancelTimer();
+        downstream.onNext(item);
+        startTimer(i + 1);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (index.getAndSet(TERMINATED) != TERMINATED) {
+            cancelTimer();
+            downstream.onError(t);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (index.getAndSet(TERMINATED) != TERMINATED) {
+            cancelTimer();
+            downstream.onComplete();
+        }
+    }
+
+    private void startTimer(long expectedIndex) {
+        Disposable next = scheduler.schedule(() -> onTimeout(expectedIndex), timeout, unit);
+        Disposable previous = timer.getAndSet(next);
+        if (previous != null) {
+            previous.dispose();
+        }
+        if (index.get() == TERMINATED) {
+            // Terminated or disposed while arming
+            next.dispose();
+        }
+    }
+
+    private void cancelTimer() {
+        Disposable current = timer.get();
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    private void onTimeout(long expectedIndex) {
+        if (index.compareAndSet(expectedIndex, TERMINATED)) {
+            upstream.dispose();
+            downstream.onError(new TimeoutException(
+                    "No item within " + timeout + " " + unit.toString().toLowerCase()));
+        }
+    }
+
+    @Override
+    public void dispose() {
+        index.set(TERMINATED);
+        upstream.dispose();
+        cancelTimer();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return upstream.isDisposed();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every task on a new virtual thread. A task that blocks unmounts from its carrier thread, so
+ * thousands of blocking subscriptions cost a few kilobytes of heap each instead of a platform
+ * thread with its own stack, as they would on {@link IOThreadScheduler}.
+ * <p>
+ * With a {@code maxConcurrency} cap, tasks beyond it wait in a queue without a thread and start as
+ * running ones finish; {@link #execute} itself never blocks.
+ */
+public class VirtualThreadScheduler implements Scheduler {
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("RxVirtual-", 1).factory());
+    private final int maxConcurrency;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public VirtualThreadScheduler() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public VirtualThreadScheduler(int maxConcurrency) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("Max concurrency must be positive");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+        if (maxConcurrency == Integer.MAX_VALUE) {
+            executor.execute(task);
+            return;
+        }
+        pending.offer(task);
+        startPending();
+    }
+
+    /**
+     * Takes a slot before polling, so a task finishing concurrently always sees a task that was
+     * queued while every slot was taken.
+     */
+    private void startPending() {
+        while (!pending.isEmpty()) {
+            int r = running.get();
+            if (r >= maxConcurrency) {
+                return;
+            }
+            if (!running.compareAndSet(r, r + 1)) {
+                continue;
+            }
+            Runnable task = pending.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                    startPending();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.mishazx;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Observable#window(int)}: like {@link BufferObserver}, but each group of {@code count}
+ * items is emitted as an observable of its own as soon as the group starts, instead of a list
+ * once it is full. Items reach a window's observer while the window is still open.
+ */
+final class WindowObserver<T> implements Observer<T> {
+    private final Observer<Observable<T>> downstream;
+    private final int count;
+    private Window<T> window;
+    private int size;
+    private boolean done;
+
+    WindowObserver(Observer<Observable<T>> downstream, int count) {
+        this.downstream = downstream;
+        this.count = count;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        downstream.onSubscribe(d);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (done) {
+            return;
+        }
+        Window<T> current = window;
+        if (current == null) {
+            current = new Window<>();
+            window = current;
+            downstream.onNext(current.observable());
+        }
+        current.onNext(item);
+        if (++size == count) {
+            size = 0;
+            window = null;
+            current.onComplete();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            return;
+        }
+        done = true;
+        if (window != null) {
+            window.onError(t);
+        }
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        if (window != null) {
+            window.onComplete();
+        }
+        downstream.onComplete();
+    }
+
+    /**
+     * Queues items until its single observer subscribes, then delivers them in order from one
+     * thread at a time, like {@link ObserveOnObserver} without a scheduler.
+     */
+    private static final class Window<T> {
+        // ConcurrentLinkedQueue rejects null items
+        private static final Object NULL = new Object();
+
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<ObservableEmitter<T>> observer = new AtomicReference<>();
+        private volatile boolean done;
+        private Throwable error;
+
+        Observable<T> observable() {
+            return Observable.create(emitter -> {
+                if (!observer.compareAndSet(null, emitter)) {
+                    emitter.onError(new IllegalStateException("A window can only be subscribed once"));
+                    return;
+                }
+                emitter.setCancellable(this::drain);
+                drain();
+            });
+        }
+
+        void onNext(T item) {
+            queue.offer(item == null ? NULL : item);
+            drain();
+        }
+
+        void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                ObservableEmitter<T> emitter = observer.get();
+                if (emitter != null) {
+                    while (true) {
+                        if (emitter.isDisposed()) {
+                            queue.clear();
+                            break;
+                        }
+                        boolean d = done;
+                        Object item = queue.poll();
+                        if (d && item == null) {
+                            if (error != null) {
+                                emitter.onError(error);
+                            } else {
+                                emitter.onComplete();
+                            }
+                            // The emitter is disposed now, so later drains only clear the queue
+                            break;
+                        }
+                        if (item == null) {
+                            break;
+                        }
+                        emitter.onNext(item == NULL ? null : (T) item);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
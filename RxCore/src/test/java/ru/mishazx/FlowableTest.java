@@ -0,0 +1,231 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowableTest {
+
+    @Test
+    void testRangeEmitsOnlyRequestedItems() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Flowable.range(1, 5).subscribe(subscriber);
+
+        // Пока ничего не запрошено, элементы не приходят
+        assertTrue(subscriber.items.isEmpty());
+
+        subscriber.request(3);
+        assertEquals(List.of(1, 2, 3), subscriber.items);
+        assertFalse(subscriber.completed);
+
+        subscriber.request(10);
+        assertEquals(List.of(1, 2, 3, 4, 5), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testFilterRequestsReplacementForDroppedItems() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Flowable.range(1, 10).filter(n -> n % 2 == 0).subscribe(subscriber);
+
+        subscriber.request(2);
+
+        // Отброшенные нечетные числа не уменьшают запрос подписчика
+        assertEquals(List.of(2, 4), subscriber.items);
+    }
+
+    @Test
+    void testDropStrategyDiscardsUnrequestedItems() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(5);
+        emitOneToHundred(BackpressureStrategy.DROP).subscribe(subscriber);
+
+        assertEquals(List.of(1, 2, 3, 4, 5), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testLatestStrategyKeepsNewestItem() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(1);
+        emitOneToHundred(BackpressureStrategy.LATEST).subscribe(subscriber);
+
+        assertEquals(List.of(1), subscriber.items);
+
+        // Из непрочитанных элементов сохраняется только последний
+        subscriber.request(5);
+        assertEquals(List.of(1, 100), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testBufferStrategyDeliversEverythingLater() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(2);
+        emitOneToHundred(BackpressureStrategy.BUFFER).subscribe(subscriber);
+
+        assertEquals(2, subscriber.items.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.request(Long.MAX_VALUE);
+        assertEquals(100, subscriber.items.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testErrorStrategySignalsMissingBackpressure() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(1);
+        emitOneToHundred(BackpressureStrategy.ERROR).subscribe(subscriber);
+
+        assertEquals(List.of(1), subscriber.items);
+        assertTrue(subscriber.error instanceof MissingBackpressureException);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void testNonPositiveRequestIsAnError() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Flowable.range(1, 5).subscribe(subscriber);
+
+        subscriber.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void testObserveOnKeepsAtMostPrefetchItemsInFlight() throws InterruptedException {
+        int prefetch = 16;
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Flowable.range(0, 200)
+                .map(n -> {
+                    produced.incrementAndGet();
+                    return n;
+                })
+                .observeOn(Schedulers.single(), prefetch)
+                .subscribe(
+                        n -> {
+                            // Медленный потребитель
+                            maxInFlight.accumulateAndGet(produced.get() - consumed.get(), Math::max);
+                            consumed.incrementAndGet();
+                            if (n % 20 == 0) {
+                                sleep(2);
+                            }
+                        },
+                        error -> {},
+                        latch::countDown
+                );
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(200, consumed.get());
+
+        // Источник не опережает потребителя больше, чем на prefetch элементов
+        assertTrue(maxInFlight.get() <= prefetch, "in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    void testFlatMapLimitsConcurrentInnerPublishers() throws InterruptedException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Flowable.range(1, 10)
+                .flatMap(n -> Flowable.<Integer>create(emitter -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    sleep(5);
+                    emitter.onNext(n * 10);
+                    emitter.onNext(n * 10 + 1);
+                    active.decrementAndGet();
+                    emitter.onComplete();
+                }, BackpressureStrategy.BUFFER).subscribeOn(Schedulers.io()), 2)
+                .subscribe(received::add, error -> {}, latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(20, received.size());
+
+        // Одновременно подписано не больше двух внутренних источников
+        assertTrue(maxActive.get() <= 2, "active: " + maxActive.get());
+    }
+
+    @Test
+    void testObservableToFlowable() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(2);
+        Observable.<Integer>create(observer -> {
+            observer.onNext(1);
+            observer.onNext(2);
+            observer.onNext(3);
+            observer.onComplete();
+        }).toFlowable(BackpressureStrategy.DROP).subscribe(subscriber);
+
+        assertEquals(List.of(1, 2), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    private static Flowable<Integer> emitOneToHundred(BackpressureStrategy strategy) {
+        return Flowable.create(emitter -> {
+            for (int i = 1; i <= 100; i++) {
+                emitter.onNext(i);
+            }
+            emitter.onComplete();
+        }, strategy);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestSubscriber<T> implements Flow.Subscriber<T> {
+        private final long initialRequest;
+        final List<T> items = new CopyOnWriteArrayList<>();
+        volatile Throwable error;
+        volatile boolean completed;
+        private Flow.Subscription subscription;
+
+        TestSubscriber() {
+            this(0);
+        }
+
+        TestSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -4,10 +4,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +21,8 @@ class ObservableTest {
     private Throwable receivedError;
     private boolean completed;
     private Observer<Integer> testObserver;
+    // fail() в колбэке на потоке планировщика не роняет тест, поэтому сбой сохраняется и проверяется в потоке теста
+    private final AtomicReference<Throwable> callbackFailure = new AtomicReference<>();
 
     @BeforeEach
     void setUp() {
@@ -106,6 +112,50 @@ class ObservableTest {
         assertTrue(completed);
     }
 
+    @Test
+    void testFusedMapFilterChain() {
+        // Считаем подписки на источник
+        AtomicInteger subscriptions = new AtomicInteger();
+        Observable<Integer> source = Observable.create(observer -> {
+            subscriptions.incrementAndGet();
+            for (int i = 1; i <= 10; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+
+        List<String> items = new ArrayList<>();
+        source.map(i -> i * 3)
+            .filter(i -> i % 2 == 0)
+            .map(i -> i + 1)
+            .filter(i -> i > 10)
+            .map(i -> "Item: " + i)
+            .subscribe(items::add, e -> fail("Should not throw error"), () -> completed = true);
+
+        // Цепочка из пяти операторов дает тот же результат, что и последовательное применение
+        assertEquals(List.of("Item: 13", "Item: 19", "Item: 25", "Item: 31"), items);
+        assertTrue(completed);
+        // Слитая цепочка подписывается на источник один раз
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void testFusedChainReportsStageError() {
+        Observable<Integer> source = Observable.create(observer -> {
+            observer.onNext(1);
+            observer.onNext(0);
+            observer.onComplete();
+        });
+
+        source.map(i -> i + 1)
+            .map(i -> 10 / (i - 1))
+            .filter(i -> i > 0)
+            .subscribe(testObserver);
+
+        // Исключение в средней стадии передается в onError
+        assertTrue(receivedError instanceof ArithmeticException);
+    }
+
     @Test
     void testFlatMapOperator() {
         // Создаем Observable и применяем flatMap
@@ -139,6 +189,138 @@ class ObservableTest {
         assertTrue(completed);
     }
 
+    @Test
+    void testFlatMapCompletesAfterAsyncInners() throws InterruptedException {
+        List<Integer> results = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Observable.<Integer>create(emitter -> {
+                emitter.onNext(1);
+                emitter.onNext(2);
+                emitter.onComplete();
+            })
+            .flatMap(i -> Observable.<Integer>create(inner -> {
+                    inner.onNext(i * 10);
+                    inner.onNext(i * 10 + 1);
+                    inner.onComplete();
+                })
+                .delay(20, TimeUnit.MILLISECONDS))
+            .subscribe(results::add, recordError(latch), latch::countDown);
+
+        // Внешний источник уже завершился, но внутренние еще работают
+        assertTrue(results.isEmpty());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(4, results.size());
+    }
+
+    @Test
+    void testFlatMapLimitsConcurrentInnerSources() throws InterruptedException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Integer> results = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Observable.<Integer>create(emitter -> {
+                for (int i = 0; i < 20; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .flatMap(i -> Observable.<Integer>create(inner -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inner.onNext(i);
+                active.decrementAndGet();
+                inner.onComplete();
+            }).subscribeOn(Schedulers.io()), 3)
+            .subscribe(results::add, recordError(latch), latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(20, results.size());
+
+        // Одновременно подписано не больше трех внутренних источников
+        assertTrue(maxActive.get() <= 3, "active: " + maxActive.get());
+    }
+
+    @Test
+    void testFlatMapSerializesConcurrentInners() throws InterruptedException {
+        int sources = 16;
+        int itemsPerSource = 1000;
+        AtomicInteger inOnNext = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Observable.<Integer>create(emitter -> {
+                for (int i = 0; i < sources; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .flatMap(i -> Observable.<Integer>create(inner -> {
+                for (int j = 0; j < itemsPerSource; j++) {
+                    inner.onNext(j);
+                }
+                inner.onComplete();
+            }).subscribeOn(Schedulers.io()))
+            .subscribe(item -> {
+                if (inOnNext.incrementAndGet() != 1) {
+                    overlaps.incrementAndGet();
+                }
+                received.incrementAndGet();
+                inOnNext.decrementAndGet();
+            }, recordError(latch), latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(sources * itemsPerSource, received.get());
+
+        // onNext ни разу не вызывался из двух потоков одновременно
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void testFlatMapSubscribesQueuedSynchronousInnersWithoutRecursion() throws InterruptedException {
+        int count = 100_000;
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // Первый внутренний источник асинхронный, остальные синхронные ждут его в очереди при maxConcurrency = 1.
+        // Когда он завершится, все остальные подписываются подряд и завершаются прямо во время подписки
+        Observable.<Integer>create(emitter -> {
+                for (int i = 0; i < count; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .flatMap(i -> {
+                Observable<Integer> inner = Observable.create(emitter -> {
+                    if (i == 0) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    emitter.onNext(i);
+                    emitter.onComplete();
+                });
+                return i == 0 ? inner.subscribeOn(Schedulers.io()) : inner;
+            }, 1)
+            .subscribe(item -> received.incrementAndGet(), recordError(latch), latch::countDown);
+
+        // Без цикла каждый следующий источник добавлял бы кадр стека, и поток падал бы со StackOverflowError
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(count, received.get());
+    }
+
     @Test
     void testErrorHandling() {
         // Создаем Observable, который выбрасывает исключение
@@ -203,6 +385,43 @@ class ObservableTest {
         assertNotEquals(emissionThread.get(), observationThread.get());
     }
 
+    @Test
+    void testObserveOnKeepsOrderOnMultiThreadedScheduler() throws InterruptedException {
+        int count = 10_000;
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> items = new ArrayList<>();
+        // Число одновременных вызовов onNext, их не должно быть больше одного
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        Observable.<Integer>create(observer -> {
+                for (int i = 0; i < count; i++) {
+                    observer.onNext(i);
+                }
+                observer.onComplete();
+            })
+            .observeOn(Schedulers.computation())
+            .subscribe(
+                i -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    items.add(i);
+                    inFlight.decrementAndGet();
+                },
+                recordError(latch),
+                latch::countDown
+            );
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+
+        // Элементы пришли по порядку и последовательно, а onComplete - после всех элементов
+        assertEquals(count, items.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) items.get(i));
+        }
+        assertEquals(1, maxInFlight.get());
+    }
+
     @Test
     void testDisposable() {
         // Создаем счетчик для отслеживания количества эмитированных элементов
@@ -253,4 +472,408 @@ class ObservableTest {
             fail("Test interrupted");
         }
     }
-} 
+
+    @Test
+    void testDisposeStopsSourceThroughOperatorChain() {
+        AtomicInteger produced = new AtomicInteger();
+        List<Integer> items = new ArrayList<>();
+
+        // Бесконечный синхронный источник, который проверяет отмену
+        Observable<Integer> infinite = Observable.create(emitter -> {
+            int i = 0;
+            while (!emitter.isDisposed()) {
+                produced.incrementAndGet();
+                emitter.onNext(i++);
+            }
+        });
+
+        infinite
+            .map(i -> i * 2)
+            .filter(i -> i % 4 == 0)
+            .subscribe(new Observer<Integer>() {
+                private Disposable disposable;
+
+                @Override
+                public void onSubscribe(Disposable d) {
+                    // Disposable приходит до первого элемента
+                    disposable = d;
+                }
+
+                @Override
+                public void onNext(Integer item) {
+                    items.add(item);
+                    if (items.size() == 3) {
+                        disposable.dispose();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail("Should not throw error");
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+        // Источник остановился сразу после отмены, а не работает бесконечно
+        assertEquals(List.of(0, 4, 8), items);
+        assertEquals(5, produced.get());
+    }
+
+    @Test
+    void testDisposeCancelsSubscribeOnBeforeItStarts() throws InterruptedException {
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        // Занимаем единственный поток планировщика
+        Scheduler single = Schedulers.single();
+        single.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Disposable disposable = Observable.<Integer>create(emitter -> {
+                subscriptions.incrementAndGet();
+                emitter.onComplete();
+            })
+            .subscribeOn(single)
+            .subscribe(testObserver);
+        disposable.dispose();
+        blocker.countDown();
+
+        // Дожидаемся, пока отмененная задача пройдет через планировщик
+        CountDownLatch drained = new CountDownLatch(1);
+        single.execute(drained::countDown);
+        assertTrue(drained.await(1, TimeUnit.SECONDS));
+
+        // Подписка на источник так и не произошла
+        assertEquals(0, subscriptions.get());
+        assertFalse(completed);
+    }
+
+    @Test
+    void testDisposeCancelsFlatMapInnerSources() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        Disposable disposable = Observable.<Integer>create(emitter -> {
+                emitter.onNext(1);
+            })
+            .flatMap(i -> Observable.<Integer>create(emitter -> {
+                Thread producer = new Thread(() -> {
+                    started.countDown();
+                    while (!emitter.isDisposed()) {
+                        emitter.onNext(i);
+                        Thread.onSpinWait();
+                    }
+                    stopped.countDown();
+                });
+                producer.setDaemon(true);
+                producer.start();
+            }))
+            .subscribe(item -> { }, recordError(started), () -> { });
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        disposable.dispose();
+
+        // Отмена дошла до внутреннего источника, и его поток завершился
+        assertTrue(stopped.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+    }
+
+    @Test
+    void testIntervalEmitsUntilDisposed() throws InterruptedException {
+        List<Long> ticks = new CopyOnWriteArrayList<>();
+        CountDownLatch threeTicks = new CountDownLatch(3);
+
+        Disposable disposable = Observable.interval(10, TimeUnit.MILLISECONDS)
+            .subscribe(tick -> {
+                ticks.add(tick);
+                threeTicks.countDown();
+            }, recordError(threeTicks), recordUnexpected("Interval should not complete", threeTicks));
+
+        assertTrue(threeTicks.await(1, TimeUnit.SECONDS));
+        disposable.dispose();
+        int afterDispose = ticks.size();
+        Thread.sleep(50);
+
+        // Счетчик идет с нуля по порядку, после отмены тиков больше нет
+        assertNoCallbackFailure();
+        assertEquals(List.of(0L, 1L, 2L), ticks.subList(0, 3));
+        assertEquals(afterDispose, ticks.size());
+    }
+
+    @Test
+    void testIntervalReportsRejectedTickInsteadOfStalling() throws InterruptedException {
+        // Исполнитель принимает два тика и отказывает третьему: интервал должен завершиться ошибкой, а не замолчать
+        AtomicInteger accepted = new AtomicInteger();
+        Scheduler rejecting = Schedulers.from(task -> {
+            if (accepted.getAndIncrement() >= 2) {
+                throw new RejectedExecutionException("expected by the test");
+            }
+            task.run();
+        });
+        List<Long> ticks = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Observable.interval(5, TimeUnit.MILLISECONDS, rejecting)
+            .subscribe(ticks::add, e -> {
+                error.set(e);
+                latch.countDown();
+            }, recordUnexpected("Interval should not complete", latch));
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Thread.sleep(30);
+        assertNoCallbackFailure();
+        assertInstanceOf(RejectedExecutionException.class, error.get());
+        assertEquals(List.of(0L, 1L), ticks);
+        // Таймер отменен: после ошибки планировщик больше не вызывается
+        assertEquals(3, accepted.get());
+    }
+
+    @Test
+    void testIntervalReportsObserverFailureAndStops() throws InterruptedException {
+        List<Long> ticks = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Observable.interval(5, TimeUnit.MILLISECONDS)
+            .subscribe(tick -> {
+                ticks.add(tick);
+                if (tick == 1) {
+                    throw new IllegalStateException("expected by the test");
+                }
+            }, e -> {
+                error.set(e);
+                latch.countDown();
+            }, recordUnexpected("Interval should not complete", latch));
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Thread.sleep(30);
+        assertNoCallbackFailure();
+        assertInstanceOf(IllegalStateException.class, error.get());
+        assertEquals(List.of(0L, 1L), ticks);
+    }
+
+    @Test
+    void testTimerEmitsZeroAndCompletes() throws InterruptedException {
+        List<Long> items = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        Observable.timer(30, TimeUnit.MILLISECONDS)
+            .subscribe(items::add, recordError(latch), latch::countDown);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(List.of(0L), items);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void testThousandsOfTimersDoNotNeedThreads() throws InterruptedException {
+        int timers = 10_000;
+        CountDownLatch latch = new CountDownLatch(timers);
+        int threadsBefore = Thread.activeCount();
+
+        for (int i = 0; i < timers; i++) {
+            Observable.timer(100, TimeUnit.MILLISECONDS)
+                .subscribe(tick -> { }, recordError(latch), latch::countDown);
+        }
+
+        // Пока таймеры ждут, число потоков не растет вместе с их количеством
+        assertTrue(Thread.activeCount() - threadsBefore < 10);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+    }
+
+    @Test
+    void testDelayShiftsItemsAndKeepsOrder() throws InterruptedException {
+        List<Integer> items = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        Observable.<Integer>create(emitter -> {
+                for (int i = 0; i < 100; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .delay(50, TimeUnit.MILLISECONDS, Schedulers.io())
+            .subscribe(items::add, recordError(latch), latch::countDown);
+
+        // Ничего не пришло раньше задержки
+        assertTrue(items.isEmpty());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        // Многопоточный планировщик не перемешал элементы
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) items.get(i));
+        }
+    }
+
+    @Test
+    void testTimeoutFiresWhenSourceIsSilent() throws InterruptedException {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger disposals = new AtomicInteger();
+
+        Observable.<Integer>create(emitter -> {
+                emitter.setCancellable(disposals::incrementAndGet);
+                emitter.onNext(1);
+                // Больше ничего не отправляем
+            })
+            .timeout(30, TimeUnit.MILLISECONDS)
+            .subscribe(item -> { }, e -> {
+                error.set(e);
+                latch.countDown();
+            }, recordUnexpected("Should not complete", latch));
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertTrue(error.get() instanceof TimeoutException);
+
+        // Источник отменен вместе с ошибкой
+        assertEquals(1, disposals.get());
+    }
+
+    @Test
+    void testTimeoutDoesNotFireForTimelySource() throws InterruptedException {
+        List<Long> items = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Disposable disposable = Observable.interval(10, TimeUnit.MILLISECONDS)
+            .filter(tick -> tick < 5)
+            .timeout(500, TimeUnit.MILLISECONDS)
+            .subscribe(tick -> {
+                items.add(tick);
+                if (items.size() == 5) {
+                    latch.countDown();
+                }
+            }, recordError(latch), () -> { });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        disposable.dispose();
+        assertNoCallbackFailure();
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), items);
+    }
+
+    @Test
+    void testBufferByCount() {
+        List<List<Integer>> batches = new ArrayList<>();
+
+        Observable.<Integer>create(emitter -> {
+                for (int i = 1; i <= 7; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .buffer(3)
+            .subscribe(batches::add, e -> fail("Should not throw error"), () -> completed = true);
+
+        // Последняя неполная пачка отдается перед завершением
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7)), batches);
+        assertTrue(completed);
+    }
+
+    @Test
+    void testBufferByTimeAndSize() throws InterruptedException {
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Disposable disposable = Observable.interval(10, TimeUnit.MILLISECONDS)
+            .buffer(55, TimeUnit.MILLISECONDS, 100)
+            .subscribe(batch -> {
+                batches.add(batch);
+                if (batches.size() == 3) {
+                    latch.countDown();
+                }
+            }, recordError(latch), () -> { });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        disposable.dispose();
+        assertNoCallbackFailure();
+
+        // Пачки сбрасываются по времени, элементы идут подряд без потерь
+        List<Long> all = new ArrayList<>();
+        for (List<Long> batch : batches) {
+            assertFalse(batch.isEmpty());
+            assertTrue(batch.size() < 100);
+            all.addAll(batch);
+        }
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i, (long) all.get(i));
+        }
+
+        // Размер пачки ограничен maxSize, даже если время еще не вышло
+        List<List<Integer>> bySize = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Observable.<Integer>create(emitter -> {
+                for (int i = 0; i < 10; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .buffer(1, TimeUnit.HOURS, 4)
+            .subscribe(bySize::add, recordError(done), done::countDown);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertNoCallbackFailure();
+        assertEquals(List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9)), bySize);
+    }
+
+    @Test
+    void testWindowByCount() {
+        List<List<Integer>> windows = new ArrayList<>();
+
+        Observable.<Integer>create(emitter -> {
+                for (int i = 1; i <= 5; i++) {
+                    emitter.onNext(i);
+                }
+                emitter.onComplete();
+            })
+            .window(2)
+            .subscribe(window -> {
+                List<Integer> items = new ArrayList<>();
+                windows.add(items);
+                window.subscribe(items::add, e -> fail("Should not throw error"), () -> { });
+            }, e -> fail("Should not throw error"), () -> completed = true);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), windows);
+        assertTrue(completed);
+    }
+
+    /**
+     * onError for callbacks that run on a scheduler thread. The error is kept for
+     * {@link #assertNoCallbackFailure()}, and {@code latch} is released so that the test reports
+     * it at once instead of timing out.
+     */
+    private Consumer<Throwable> recordError(CountDownLatch latch) {
+        return e -> {
+            callbackFailure.compareAndSet(null, e);
+            latch.countDown();
+        };
+    }
+
+    /**
+     * onComplete that must not be called, for callbacks that run on a scheduler thread.
+     */
+    private Runnable recordUnexpected(String message, CountDownLatch latch) {
+        return () -> {
+            callbackFailure.compareAndSet(null, new AssertionError(message));
+            latch.countDown();
+        };
+    }
+
+    private void assertNoCallbackFailure() {
+        assertNull(callbackFailure.get(), () -> "callback failed: " + callbackFailure.get());
+    }
+}
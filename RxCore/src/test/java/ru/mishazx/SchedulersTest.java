@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -199,4 +200,92 @@ class SchedulersTest {
         // Проверяем, что для выполнения задач было создано несколько потоков
         assertTrue(threadNames.size() > 1);
     }
-} 
+
+    @Test
+    void testFromExecutorRunsPipelineOnMyCustomThreadPool() throws InterruptedException {
+        // Пул потоков, общий для реактивного и обычного кода
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 4, 5, TimeUnit.SECONDS, 100, 1);
+        Scheduler scheduler = Schedulers.from(pool);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger sum = new AtomicInteger();
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        Observable.<Integer>create(observer -> {
+                    observer.onNext(1);
+                    observer.onNext(2);
+                    observer.onNext(3);
+                    observer.onComplete();
+                })
+                .subscribeOn(scheduler)
+                .map(n -> n * 10)
+                .subscribe(
+                        item -> {
+                            threadName.set(Thread.currentThread().getName());
+                            sum.addAndGet(item);
+                        },
+                        error -> {},
+                        latch::countDown
+                );
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(60, sum.get());
+
+        // Элементы обрабатываются рабочим потоком пула
+        assertTrue(threadName.get().startsWith("Worker-"));
+        pool.shutdown();
+    }
+
+    @Test
+    void testVirtualSchedulerRunsManyBlockingSubscriptions() throws InterruptedException {
+        int subscriptions = 2_000;
+        CountDownLatch latch = new CountDownLatch(subscriptions);
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        for (int i = 0; i < subscriptions; i++) {
+            Observable.<Integer>create(emitter -> {
+                    threadName.set(Thread.currentThread().getName());
+                    // Блокирующий вызов, например запрос к сети
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    emitter.onComplete();
+                })
+                .subscribeOn(Schedulers.virtual())
+                .subscribe(item -> { }, e -> fail("Should not throw error"), latch::countDown);
+        }
+
+        // Все подписки блокируются одновременно, а не по очереди
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("RxVirtual-"));
+    }
+
+    @Test
+    void testVirtualSchedulerRespectsConcurrencyCap() throws InterruptedException {
+        int tasks = 50;
+        int cap = 4;
+        Scheduler scheduler = Schedulers.virtual(cap);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            scheduler.execute(() -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                latch.countDown();
+            });
+        }
+
+        // Лишние задачи ждут в очереди и выполняются после освобождения места
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(maxActive.get() <= cap, "active: " + maxActive.get());
+    }
+}
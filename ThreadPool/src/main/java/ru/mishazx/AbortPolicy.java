@@ -0,0 +1,17 @@
+package ru.mishazx;
+
+/**
+ * Rejects the task by throwing {@link TaskRejectedException} to the submitter.
+ */
+public final class AbortPolicy extends RejectionPolicy {
+
+    @Override
+    public void rejectedExecution(Runnable task, MyCustomThreadPool pool) {
+        rejected(new QueuedTask(task, System.nanoTime()), pool);
+    }
+
+    @Override
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.abort(task);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.mishazx;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link MyCustomThreadPool#executeAll(java.util.Collection)}. Both lists keep the order
+ * in which the tasks were passed in.
+ */
+public record BatchResult(List<Runnable> accepted, List<Runnable> rejected) {
+
+    public boolean allAccepted() {
+        return rejected.isEmpty();
+    }
+}
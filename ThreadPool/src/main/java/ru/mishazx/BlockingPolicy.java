@@ -0,0 +1,27 @@
+package ru.mishazx;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocks the submitter until a queue has room or the timeout elapses, then throws
+ * {@link TaskRejectedException}. Blocked submits and the time spent waiting are reported in
+ * {@link PoolStats#blockedSubmits()} and {@link PoolStats#submitBlockTime()}.
+ */
+public final class BlockingPolicy extends RejectionPolicy {
+    private final long timeoutNanos;
+
+    public BlockingPolicy(long timeout, TimeUnit unit) {
+        if (timeout < 0) throw new IllegalArgumentException("Timeout cannot be negative");
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, MyCustomThreadPool pool) {
+        rejected(new QueuedTask(task, System.nanoTime()), pool);
+    }
+
+    @Override
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.offerBlocking(task, timeoutNanos);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.mishazx;
+
+/**
+ * Runs the task on the submitting thread. While it does, that producer submits nothing else, which
+ * gives the workers time to drain their queues. Counted in {@link PoolStats#callerRunsTasks()}.
+ */
+public final class CallerRunsPolicy extends RejectionPolicy {
+
+    @Override
+    public void rejectedExecution(Runnable task, MyCustomThreadPool pool) {
+        rejected(new QueuedTask(task, System.nanoTime()), pool);
+    }
+
+    @Override
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.runInCaller(task);
+    }
+}
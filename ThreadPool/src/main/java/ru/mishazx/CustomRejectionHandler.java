@@ -1,11 +0,0 @@
-package ru.mishazx;
-
-import java.util.concurrent.RejectedExecutionHandler;
-import java.util.concurrent.ThreadPoolExecutor;
-
-public class CustomRejectionHandler implements RejectedExecutionHandler {
-    @Override
-    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-        System.out.println("Task rejected: " + r.toString());
-    }
-}
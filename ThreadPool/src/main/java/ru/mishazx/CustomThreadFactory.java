@@ -8,8 +8,6 @@ public class CustomThreadFactory implements ThreadFactory {
 
     @Override
     public Thread newThread(Runnable r) {
-        Thread t = new Thread(r, "Worker-" + threadNumber.getAndIncrement());
-        System.out.println("Created thread: " + t.getName());
-        return t;
+        return new Thread(r, "Worker-" + threadNumber.getAndIncrement());
     }
 }
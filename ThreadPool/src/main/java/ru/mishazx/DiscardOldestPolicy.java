@@ -0,0 +1,20 @@
+package ru.mishazx;
+
+/**
+ * Makes room by dropping a queued task from the fullest queue and queues the new task instead.
+ * A FIFO queue drops its oldest task, a priority queue the task that would run last. A dropped
+ * {@code submit} future completes with {@link TaskRejectedException}; drops are counted in
+ * {@link PoolStats#discardedTasks()} and reported to {@link PoolListener#onTaskDiscarded(Runnable)}.
+ */
+public final class DiscardOldestPolicy extends RejectionPolicy {
+
+    @Override
+    public void rejectedExecution(Runnable task, MyCustomThreadPool pool) {
+        rejected(new QueuedTask(task, System.nanoTime()), pool);
+    }
+
+    @Override
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.offerDiscardingOldest(task);
+    }
+}
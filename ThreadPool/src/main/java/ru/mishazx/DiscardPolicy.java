@@ -0,0 +1,21 @@
+package ru.mishazx;
+
+/**
+ * Drops the task and prints {@code "Task rejected: " + task} to standard output, both when the
+ * queues are full and after shutdown. This is the default policy and keeps the pool's original
+ * behaviour: the submitter is not told, so it suits fire-and-forget tasks only. A dropped
+ * {@code submit} future still completes with {@link TaskRejectedException}, and a dropped keyed
+ * task lets the next task of its key go ahead. Counted in {@link PoolStats#rejectedTasks()}.
+ */
+public final class DiscardPolicy extends RejectionPolicy {
+
+    @Override
+    public void rejectedExecution(Runnable task, MyCustomThreadPool pool) {
+        rejected(new QueuedTask(task, System.nanoTime()), pool);
+    }
+
+    @Override
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.discard(task);
+    }
+}
@@ -0,0 +1,156 @@
+package ru.mishazx;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Insertion-order queue. The owner takes from the head and thieves from the tail, so they only
+ * compete for the same task when a single one is left. One lock guards an {@link ArrayDeque}, so a
+ * batch is queued under a single acquisition and queued tasks need no nodes.
+ */
+final class FifoTaskQueue implements TaskQueue {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<QueuedTask> deque = new ArrayDeque<>();
+    private final int capacity;
+    // Written under the lock, read without it by load-aware queue selectors and thieves
+    private volatile int count = 0;
+
+    FifoTaskQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(QueuedTask task) {
+        lock.lock();
+        try {
+            if (count >= capacity) {
+                return false;
+            }
+            deque.addLast(task);
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int offerAll(List<QueuedTask> tasks) {
+        lock.lock();
+        try {
+            int accepted = Math.max(0, Math.min(tasks.size(), capacity - count));
+            for (int i = 0; i < accepted; i++) {
+                deque.addLast(tasks.get(i));
+            }
+            if (accepted > 0) {
+                count += accepted;
+                notEmpty.signal();
+            }
+            return accepted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask poll() {
+        if (count == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return takeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return takeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask steal() {
+        if (count == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            QueuedTask task = deque.pollLast();
+            if (task != null) {
+                count--;
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask evict() {
+        return poll();
+    }
+
+    @Override
+    public boolean remove(QueuedTask task) {
+        lock.lock();
+        try {
+            // QueuedTask keeps identity equality, so this removes exactly the given entry
+            boolean removed = deque.removeFirstOccurrence(task);
+            if (removed) {
+                count--;
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeTask(Runnable task) {
+        lock.lock();
+        try {
+            boolean removed = deque.removeIf(queued -> queued.task == task);
+            count = deque.size();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count;
+    }
+
+    private QueuedTask takeFirst() {
+        QueuedTask task = deque.pollFirst();
+        if (task != null) {
+            count--;
+        }
+        return task;
+    }
+}
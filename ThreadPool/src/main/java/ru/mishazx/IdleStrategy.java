@@ -0,0 +1,24 @@
+package ru.mishazx;
+
+/**
+ * What a worker does while its own queue is empty and there is nothing to steal. Spinning
+ * strategies pick up a new task within a few hundred nanoseconds but keep a core busy while idle;
+ * the blocking strategy costs no CPU but every hand-off to an idle worker pays for a full
+ * park/unpark. Set per pool with {@link MyCustomThreadPool#setIdleStrategy(IdleStrategy)}.
+ */
+public enum IdleStrategy {
+    /** Blocks on the own queue until a task arrives (the default). */
+    BLOCKING,
+    /**
+     * Polls the own queue without ever giving up the core, and the siblings' queues on every
+     * 32nd idle round.
+     */
+    BUSY_SPIN,
+    /** Spins for a while, then calls {@link Thread#yield()} between polls; siblings are scanned as in BUSY_SPIN. */
+    SPIN_YIELD,
+    /**
+     * Spins, then yields, then blocks on the own queue with a timeout that doubles on every idle
+     * round. A submit still wakes the worker right away; the backoff only spaces out steal scans.
+     */
+    SPIN_PARK
+}
@@ -0,0 +1,134 @@
+package ru.mishazx;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Per-key ordering for {@link MyCustomThreadPool#executeKeyed(Object, Runnable)}. At most one task
+ * of a key is queued or running at a time; later tasks of the key wait in its lane and are
+ * submitted one by one as their predecessor finishes. Every successor goes through normal queue
+ * selection, so a key is never tied to a worker: a hot key spreads over workers added later, and
+ * a task sitting in an exiting worker's queue moves with the hand-off.
+ * <p>
+ * A lane is only touched inside {@code compute} for its own key, so different keys never share a
+ * lock, and it is removed as soon as it runs empty.
+ */
+final class KeyedLanes {
+    private static final BiFunction<Object, Lane, Lane> ADVANCE = (key, lane) -> {
+        lane.head = lane.waiting.poll();
+        return lane.head != null ? lane : null;
+    };
+
+    private final ConcurrentHashMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * @return the task itself if it leads its key and must be submitted now, or null if it waits
+     * behind an earlier task of the same key
+     */
+    KeyedTask enqueue(MyCustomThreadPool pool, Object key, Runnable task) {
+        KeyedTask keyed = new KeyedTask(pool, key, task, System.nanoTime());
+        lanes.compute(key, (k, lane) -> {
+            if (lane == null) {
+                keyed.leads = true;
+                return new Lane(keyed);
+            }
+            lane.waiting.add(keyed);
+            return lane;
+        });
+        return keyed.leads ? keyed : null;
+    }
+
+    /**
+     * Called once the current task of {@code key} has finished or will never run.
+     *
+     * @return the next task of the key, or null if the lane is now empty and has been removed
+     */
+    KeyedTask advance(Object key) {
+        Lane lane = lanes.computeIfPresent(key, ADVANCE);
+        return lane != null ? lane.head : null;
+    }
+
+    /**
+     * Puts a task that {@link #advance} returned back at the front of its lane, for a caller that
+     * finds the pool stopping before it could submit the task.
+     *
+     * @return false if the lane has already been drained, so the task will not be returned by
+     * {@link #drainTo}
+     */
+    boolean putBack(KeyedTask task) {
+        Lane lane = lanes.computeIfPresent(task.key, (key, current) -> {
+            if (current.head == task) {
+                current.waiting.addFirst(task);
+                current.head = null;
+            }
+            return current;
+        });
+        return lane != null && lane.head == null;
+    }
+
+    /**
+     * Removes every lane and moves the tasks waiting in them to {@code pending}. The tasks that
+     * lead their lanes are in worker queues or running and are not included.
+     */
+    void drainTo(List<Runnable> pending) {
+        for (Object key : lanes.keySet()) {
+            lanes.computeIfPresent(key, (k, lane) -> {
+                for (KeyedTask waiting : lane.waiting) {
+                    pending.add(waiting.task);
+                }
+                return null;
+            });
+        }
+    }
+
+    private static final class Lane {
+        // The task that is queued or running; the lane exists as long as there is one. Null only
+        // after putBack, until shutdownNow drains the lane
+        KeyedTask head;
+        final ArrayDeque<KeyedTask> waiting = new ArrayDeque<>();
+
+        Lane(KeyedTask head) {
+            this.head = head;
+        }
+    }
+
+    /**
+     * What a worker queue holds for a keyed task. Finishing it starts the next task of the key.
+     */
+    static final class KeyedTask implements Runnable {
+        private final MyCustomThreadPool pool;
+        final Object key;
+        final Runnable task;
+        // Lane wait counts as queue wait
+        final long submittedAt;
+        // Written inside compute and read afterwards by the same thread
+        private boolean leads;
+        // Set when the successor loop runs this task inline and starts the next one itself
+        boolean inline;
+
+        private KeyedTask(MyCustomThreadPool pool, Object key, Runnable task, long submittedAt) {
+            this.pool = pool;
+            this.key = key;
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                if (!inline) {
+                    pool.startNextKeyed(key);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
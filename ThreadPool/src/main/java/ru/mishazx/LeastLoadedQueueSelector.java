@@ -0,0 +1,32 @@
+package ru.mishazx;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Scans every worker and picks the one with the smallest load. The scan starts at a random
+ * position so that ties do not always go to the first worker.
+ * <p>
+ * This is the most expensive selector: every submit reads the load of every worker, so the
+ * cost of a submit grows with the pool, and each read touches a counter that its worker keeps
+ * changing.
+ * {@link PowerOfTwoChoicesQueueSelector} balances almost as well while reading only two loads.
+ */
+public class LeastLoadedQueueSelector implements QueueSelector {
+
+    @Override
+    public int select(Worker[] workers) {
+        int n = workers.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        int best = start;
+        int bestLoad = workers[start].getLoad();
+        for (int i = 1; i < n && bestLoad > 0; i++) {
+            int index = (start + i) % n;
+            int load = workers[index].getLoad();
+            if (load < bestLoad) {
+                best = index;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
@@ -18,6 +18,20 @@ public class Main {
                 5,                       // queueSize
                 1                        // minSpareThreads
         );
+        // The scenarios count rejections, so they need them thrown rather than logged and dropped
+        pool.setRejectionPolicy(new AbortPolicy());
+
+        pool.setListener(new PoolListener() {
+            @Override
+            public void onWorkerStarted(String workerName, int poolSize) {
+                System.out.printf("[pool] %s started, pool size %d%n", workerName, poolSize);
+            }
+
+            @Override
+            public void onWorkerRetired(String workerName, int poolSize) {
+                System.out.printf("[pool] %s retired, pool size %d%n", workerName, poolSize);
+            }
+        });
 
         System.out.println("▶  STARTING THREAD-POOL DEMO\n");
 
@@ -28,11 +42,19 @@ public class Main {
 
         System.out.println("\n▶  SHUTTING DOWN POOL …");
         pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("Pending tasks dropped: " + pool.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
         // итоговая статистика
         System.out.println("\n===== FINAL STATS =====");
         System.out.println("Completed tasks: " + completedTasks.get());
         System.out.println("Rejected  tasks: " + rejectedTasks .get());
+        System.out.println(pool.snapshot());
     }
 
     /* ---------------- private helpers ---------------- */
@@ -45,6 +67,7 @@ public class Main {
         System.out.printf("\n--- Scenario: %s ---\n", title);
         submitTasks(pool, taskCount, taskDurationMs);
         sleepSeconds(15);
+        System.out.println(pool.snapshot());
     }
 
     private static void submitTasks(MyCustomThreadPool pool,
@@ -67,7 +90,7 @@ public class Main {
                     System.out.printf("[Task %02d] finished by %s%n", taskId, threadName);
                 });
 
-            } catch (Exception e) {
+            } catch (TaskRejectedException e) {
                 rejectedTasks.incrementAndGet();
                 System.out.printf("[Task %02d] REJECTED%n", taskId);
             }
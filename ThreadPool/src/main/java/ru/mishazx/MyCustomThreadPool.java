@@ -1,126 +1,1264 @@
 package ru.mishazx;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class MyCustomThreadPool {
+public class MyCustomThreadPool implements Executor {
+    private static final long DEFAULT_AGING_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
     final int corePoolSize;
-    private final int maxPoolSize;
+    final int maxPoolSize;
     final long keepAliveTime;
     final TimeUnit timeUnit;
     private final int queueCapacity;
+    final int minSpareThreads;
+    private final QueueType queueType;
 
-    private final List<Worker> workers = new ArrayList<>();
-    private final List<BlockingQueue<Runnable>> taskQueues = new ArrayList<>();
+    // Copy-on-write snapshot: producers read it without locking, writers replace it under the lock
+    private volatile Worker[] workers = new Worker[0];
     private final CustomThreadFactory threadFactory = new CustomThreadFactory();
-    private final RejectedExecutionHandler rejectionHandler = new CustomRejectionHandler();
+    private volatile RejectionPolicy rejectionPolicy = new DiscardPolicy();
+    private final PoolMetrics metrics = new PoolMetrics();
+    private volatile PoolListener listener = new PoolListener() { };
+    // Non-null only in virtual-thread mode, where it replaces workers and their queues
+    private final VirtualThreadDispatcher virtualThreads;
+    // Null in virtual-thread mode, where permits are the only limit
+    private final PoolSizingController sizingController;
+    private final KeyedLanes keyedLanes = new KeyedLanes();
+    // Started by the first schedule call
+    private volatile TimingWheel timer;
 
     final AtomicInteger poolSize = new AtomicInteger(0);
     private final AtomicInteger activeTasks = new AtomicInteger(0);
-    private final AtomicInteger queueIndex = new AtomicInteger(0);
 
     private final ReentrantLock lock = new ReentrantLock();
+    private final Condition termination = lock.newCondition();
+    // Wakes producers blocked under BlockingPolicy; workers only touch it while someone is blocked
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition capacityAvailable = capacityLock.newCondition();
+    private final AtomicInteger blockedProducers = new AtomicInteger(0);
     private volatile boolean isShutdown = false;
+    // Set by the first task, see start()
+    private volatile boolean started = false;
+    // Set by shutdownNow: exiting workers drop what is left in their queues instead of handing it off
+    private volatile boolean stopNow = false;
+    private boolean terminated = false;
+    // Guarded by lock. Counts retired workers too until their threads exit, see onWorkerExit
+    private int liveWorkers = 0;
+    private volatile boolean workStealingEnabled = true;
+    private volatile IdleStrategy idleStrategy = IdleStrategy.BLOCKING;
+    private volatile QueueSelector queueSelector = new RoundRobinQueueSelector();
+    private volatile long agingNanos = DEFAULT_AGING_NANOS;
+    private volatile boolean dropExpiredTasks = false;
 
     public MyCustomThreadPool(int corePoolSize, int maxPoolSize, long keepAliveTime,
                               TimeUnit timeUnit, int queueCapacity, int minSpareThreads) {
+        this(corePoolSize, maxPoolSize, keepAliveTime, timeUnit, queueCapacity, minSpareThreads, QueueType.FIFO);
+    }
+
+    public MyCustomThreadPool(int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit timeUnit,
+                              int queueCapacity, int minSpareThreads, QueueType queueType) {
+        this(corePoolSize, maxPoolSize, keepAliveTime, timeUnit, queueCapacity, minSpareThreads, queueType, false);
+    }
+
+    private MyCustomThreadPool(int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit timeUnit,
+                               int queueCapacity, int minSpareThreads, QueueType queueType,
+                               boolean useVirtualThreads) {
         if (corePoolSize < 0 || maxPoolSize <= 0 || maxPoolSize < corePoolSize
                 || keepAliveTime < 0 || queueCapacity <= 0 || minSpareThreads < 0) {
             throw new IllegalArgumentException("Invalid thread pool parameters");
         }
+        if (queueType == null) throw new NullPointerException("Queue type cannot be null");
 
         this.corePoolSize = corePoolSize;
         this.maxPoolSize = maxPoolSize;
         this.keepAliveTime = keepAliveTime;
         this.timeUnit = timeUnit;
         this.queueCapacity = queueCapacity;
+        this.queueType = queueType;
+        this.minSpareThreads = minSpareThreads;
+
+        if (useVirtualThreads) {
+            this.virtualThreads = new VirtualThreadDispatcher(metrics, maxPoolSize, queueType.newQueue(queueCapacity));
+            this.sizingController = null;
+        } else {
+            this.virtualThreads = null;
+            this.sizingController = new PoolSizingController(timeUnit.toNanos(keepAliveTime));
+        }
+    }
+
+    /**
+     * Creates a pool that runs every task on its own virtual thread. At most {@code maxConcurrency}
+     * tasks run at once; up to {@code queueCapacity} more wait for a permit, and the rest are
+     * rejected exactly as in the platform-thread mode.
+     */
+    public static MyCustomThreadPool newVirtualThreadPool(int maxConcurrency, int queueCapacity) {
+        return newVirtualThreadPool(maxConcurrency, queueCapacity, QueueType.FIFO);
+    }
+
+    public static MyCustomThreadPool newVirtualThreadPool(int maxConcurrency, int queueCapacity, QueueType queueType) {
+        return new MyCustomThreadPool(0, maxConcurrency, 0, TimeUnit.SECONDS, queueCapacity, 0, queueType, true);
+    }
 
-        initializeCoreWorkers();
+    /**
+     * Starts the core workers and the sizing controller, or hands the pool to the virtual-thread
+     * dispatcher. Runs on the first task rather than in the constructor, so that no thread can see
+     * a partly constructed pool.
+     *
+     * @return false if the pool was shut down before it ever started
+     */
+    private boolean start() {
+        lock.lock();
+        try {
+            if (!started && !isShutdown) {
+                if (virtualThreads != null) {
+                    virtualThreads.attach(this);
+                } else {
+                    initializeCoreWorkers();
+                    sizingController.start(this);
+                }
+                started = true;
+            }
+            return started;
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void initializeCoreWorkers() {
-        for (int i = 0; i < corePoolSize; i++) {
+        int initial = Math.min(maxPoolSize, Math.max(corePoolSize, minSpareThreads));
+        for (int i = 0; i < initial; i++) {
             addWorker();
         }
-        System.out.println("Thread pool initialized with " + corePoolSize + " core threads");
     }
 
     private void addWorker() {
-        BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>(queueCapacity);
+        TaskQueue taskQueue = queueType.newQueue(queueCapacity);
         Worker worker = new Worker(taskQueue, this);
         Thread thread = threadFactory.newThread(worker);
+        worker.attach(thread);
 
-        taskQueues.add(taskQueue);
-        workers.add(worker);
-        poolSize.incrementAndGet();
+        int size;
+        lock.lock();
+        try {
+            Worker[] current = workers;
+            Worker[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = worker;
+            workers = updated;
+            liveWorkers++;
+            size = poolSize.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
 
         thread.start();
+        metrics.workersStarted.increment();
+        listener.onWorkerStarted(worker.getName(), size);
     }
 
+    /**
+     * @throws RejectedExecutionException if the task cannot be queued and the rejection policy gives
+     *                                    up on it; the built-in policies throw {@link TaskRejectedException}
+     */
+    @Override
     public void execute(Runnable task) {
         if (task == null) throw new NullPointerException("Task cannot be null");
 
+        dispatch(new QueuedTask(task, System.nanoTime()));
+    }
+
+    /**
+     * Submits a task with a priority; higher values run first when the pool uses
+     * {@link QueueType#PRIORITY} queues.
+     */
+    public void execute(Runnable task, int priority) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        dispatch(newQueuedTask(task, priority, QueuedTask.NO_DEADLINE));
+    }
+
+    /**
+     * Submits a task that should start within {@code timeout}. Priority queues order tasks earliest
+     * deadline first, a task without a deadline counting as due one second after submission, and
+     * each priority level moves a task one aging quantum earlier. With
+     * {@link #setDropExpiredTasks(boolean)} a task whose deadline has passed is dropped instead of run.
+     */
+    public void execute(Runnable task, int priority, long timeout, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        dispatch(newQueuedTask(task, priority, unit.toNanos(timeout)));
+    }
+
+    /**
+     * Submits a task that runs after every task previously submitted with an equal key has
+     * finished. Tasks with different keys run in parallel. Only one task per key occupies a worker
+     * queue at a time; the rest wait in a per-key lane, are not counted in
+     * {@link PoolStats#queuedTasks()} and cannot be removed with {@link #remove(Runnable)}. Once a
+     * task has passed to its lane, a full pool does not reject it: when its turn comes and every
+     * queue is full, the thread that finished its predecessor runs it.
+     *
+     * @throws RejectedExecutionException if the task leads its key and is rejected as in {@link #execute(Runnable)}
+     */
+    public void executeKeyed(Object key, Runnable task) {
+        if (key == null) throw new NullPointerException("Key cannot be null");
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
         if (isShutdown) {
-            rejectionHandler.rejectedExecution(task, null);
+            rejectionPolicy.rejected(new QueuedTask(task, System.nanoTime()), this);
+            return;
+        }
+        KeyedLanes.KeyedTask head = keyedLanes.enqueue(this, key, task);
+        if (head == null) {
             return;
         }
+        try {
+            dispatch(new QueuedTask(head, head.submittedAt));
+        } catch (RuntimeException e) {
+            // Tasks that joined the lane meanwhile must not wait for one that will never run
+            startNextKeyed(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Submits the next task of {@code key}, if any. When it finds no room, or the pool is shut
+     * down, it runs the task on the current thread instead and moves on, so the key keeps its order.
+     * Once {@link #shutdownNow()} has begun the task goes back to its lane for shutdownNow to
+     * return, unless that lane has already been drained.
+     */
+    void startNextKeyed(Object key) {
+        KeyedLanes.KeyedTask next;
+        while ((next = keyedLanes.advance(key)) != null) {
+            if (stopNow && keyedLanes.putBack(next)) {
+                return;
+            }
+            QueuedTask queued = new QueuedTask(next, next.submittedAt);
+            if (offer(queued)) {
+                metrics.submitted.increment();
+                return;
+            }
+            next.inline = true;
+            if (runTask(queued)) {
+                metrics.completedOutsideWorkers.increment();
+            }
+        }
+    }
+
+    /**
+     * Runs the task once after {@code delay}. Until then it waits in a timing wheel rather than in
+     * a worker, and when it comes due it is dispatched into the worker queues. If every queue is
+     * full at that moment the future completes exceptionally with {@link TaskRejectedException};
+     * the rejection policy is not consulted, because it would run on the timer thread.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        return schedule(Executors.callable(task), task, delay, 0, unit);
+    }
+
+    public <T> ScheduledFuture<T> schedule(Callable<T> task, long delay, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        return schedule(task, task, delay, 0, unit);
+    }
+
+    /**
+     * Runs the task after {@code initialDelay} and then every {@code period}, measured between
+     * start times. A run that is late does not shift the runs after it. The task stops when its
+     * future is cancelled, when a run throws, or when the pool shuts down.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive");
+
+        return schedule(Executors.callable(task), task, initialDelay, unit.toNanos(period), unit);
+    }
+
+    /**
+     * Like {@link #scheduleAtFixedRate}, but {@code delay} is measured from the end of one run to
+     * the start of the next.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+        if (delay <= 0) throw new IllegalArgumentException("Delay must be positive");
+
+        return schedule(Executors.callable(task), task, initialDelay, -unit.toNanos(delay), unit);
+    }
+
+    private <T> ScheduledFuture<T> schedule(Callable<T> callable, Object task, long delay, long periodNanos,
+                                            TimeUnit unit) {
+        long now = System.nanoTime();
+        long deadline = now + Math.min(unit.toNanos(Math.max(0, delay)), Long.MAX_VALUE / 4);
+        ScheduledTask<T> scheduled = new ScheduledTask<>(this, callable, task, deadline, periodNanos);
+        TimingWheel wheel = isShutdown ? null : timer();
+        if (wheel == null) {
+            recordRejected(scheduled);
+            throw new TaskRejectedException(scheduled, true);
+        }
+        wheel.add(scheduled);
+        return scheduled;
+    }
 
+    /**
+     * Starts the timer on first use. Returns null once the pool is shut down, so that no timer
+     * thread is started after {@link #shutdown()} has stopped the existing one.
+     */
+    private TimingWheel timer() {
+        TimingWheel wheel = timer;
+        if (wheel != null) {
+            return wheel;
+        }
         lock.lock();
         try {
-            if (activeTasks.get() >= poolSize.get() && poolSize.get() < maxPoolSize) {
-                addWorker();
-                System.out.println("Created new worker. Current pool size: " + poolSize.get());
+            if (timer == null && !isShutdown) {
+                timer = new TimingWheel(this::dispatchDue);
+            }
+            return timer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts a periodic task back into the wheel for its next run.
+     */
+    void reschedule(ScheduledTask<?> task) {
+        TimingWheel wheel = timer();
+        if (wheel == null) {
+            task.cancel(false);
+            return;
+        }
+        wheel.add(task);
+    }
+
+    void cancelScheduled(ScheduledTask<?> task) {
+        TimingWheel wheel = timer;
+        if (wheel != null) {
+            wheel.cancel(task);
+        }
+        remove(task);
+    }
+
+    /**
+     * Called by the timer thread for a task that has come due.
+     */
+    void dispatchDue(ScheduledTask<?> task) {
+        if (offer(new QueuedTask(task, System.nanoTime()))) {
+            metrics.submitted.increment();
+            return;
+        }
+        recordRejected(task);
+        task.completeExceptionally(new TaskRejectedException(task, isShutdown));
+    }
+
+    /**
+     * Submits a value-returning task. If the task is rejected, the returned future completes
+     * exceptionally with {@link RejectedExecutionException} instead of the call throwing. Cancelling the future before the task
+     * starts removes it from its worker queue.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, 0);
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task, int priority) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        TaskFuture<T> future = new TaskFuture<>(this, task);
+        submit(future, newQueuedTask(future, priority, QueuedTask.NO_DEADLINE));
+        return future;
+    }
+
+    /**
+     * Like {@link #execute(Runnable, int, long, TimeUnit)}; a dropped task completes its future
+     * exceptionally with {@link TimeoutException}.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, int priority, long timeout, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("Task cannot be null");
+
+        TaskFuture<T> future = new TaskFuture<>(this, task);
+        submit(future, newQueuedTask(future, priority, unit.toNanos(timeout)));
+        return future;
+    }
+
+    private void submit(TaskFuture<?> future, QueuedTask queued) {
+        try {
+            dispatch(queued);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private QueuedTask newQueuedTask(Runnable task, int priority, long timeoutNanos) {
+        long now = System.nanoTime();
+        long deadline = timeoutNanos == QueuedTask.NO_DEADLINE
+                ? QueuedTask.NO_DEADLINE
+                : now + Math.min(timeoutNanos, Long.MAX_VALUE / 4);
+        return new QueuedTask(task, now, priority, deadline, agingNanos);
+    }
+
+    private void dispatch(QueuedTask queued) {
+        if (offer(queued)) {
+            metrics.submitted.increment();
+            return;
+        }
+        rejectionPolicy.rejected(queued, this);
+    }
+
+    /**
+     * Submits all tasks as one batch and waits until every one of them has completed, failed, been
+     * rejected or been cancelled.
+     */
+    public <T> List<CompletableFuture<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        List<TaskFuture<T>> futures = submitAll(tasks);
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        } catch (ExecutionException | CancellationException e) {
+            // Individual outcomes stay in the returned futures
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            throw e;
+        }
+        return List.copyOf(futures);
+    }
+
+    /**
+     * Submits all tasks as one batch and returns the result of the first one to complete normally.
+     * The remaining tasks are cancelled, so queued ones never start.
+     *
+     * @throws ExecutionException if no task completed normally; the cause is the last failure
+     */
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        if (tasks.isEmpty()) throw new IllegalArgumentException("No tasks to invoke");
+
+        List<TaskFuture<T>> futures = submitAll(tasks);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (TaskFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error == null) {
+                    first.complete(result);
+                } else if (remaining.decrementAndGet() == 0) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return first.get();
+        } finally {
+            cancelAll(futures);
+        }
+    }
+
+    private <T> List<TaskFuture<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        List<TaskFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            if (task == null) throw new NullPointerException("Task cannot be null");
+            futures.add(new TaskFuture<>(this, task));
+        }
+        for (Runnable rejected : executeAll(futures).rejected()) {
+            ((TaskFuture<?>) rejected).completeExceptionally(
+                    new RejectedExecutionException("Task rejected: " + rejected));
+        }
+        return futures;
+    }
+
+    private static void cancelAll(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Removes a task that is still waiting in a queue.
+     *
+     * @return true if the task was found and will not run
+     */
+    public boolean remove(Runnable task) {
+        boolean removed = false;
+        if (virtualThreads != null) {
+            removed = virtualThreads.remove(task);
+        } else {
+            for (Worker worker : workers) {
+                if (worker.queue().removeTask(task)) {
+                    removed = true;
+                    break;
+                }
+            }
+        }
+        if (removed) {
+            metrics.cancelled.increment();
+        }
+        return removed;
+    }
+
+    private boolean offer(QueuedTask queued) {
+        if (isShutdown || (!started && !start())) {
+            return false;
+        }
+        if (virtualThreads != null) {
+            return virtualThreads.dispatch(queued);
+        }
+
+        Worker[] snapshot = workers;
+        if (snapshot.length < maxPoolSize && (snapshot.length == 0 || activeTasks.get() >= snapshot.length)) {
+            snapshot = growIfSaturated(snapshot.length == 0);
+        }
+        boolean accepted = enqueue(snapshot, queued);
+        sizingController.wake();
+        return accepted;
+    }
+
+    /**
+     * Submits a batch in one pass. The pool makes a single growth decision for the whole batch,
+     * adding workers for the tasks that idle workers cannot pick up right away. Tasks are then
+     * spread round-robin over the queues that still have room, starting from the worker chosen by
+     * the queue selector, and every queue receives its share with one {@link TaskQueue#offerAll}.
+     * Both lists of the result keep the order in which the tasks were passed in.
+     */
+    public BatchResult executeAll(Collection<? extends Runnable> tasks) {
+        Runnable[] batch = tasks.toArray(new Runnable[0]);
+        for (Runnable task : batch) {
+            if (task == null) throw new NullPointerException("Task cannot be null");
+        }
+
+        boolean[] rejectedAt = new boolean[batch.length];
+        if (isShutdown || (!started && !start())) {
+            Arrays.fill(rejectedAt, true);
+        } else if (virtualThreads != null) {
+            long now = System.nanoTime();
+            for (int i = 0; i < batch.length; i++) {
+                rejectedAt[i] = !virtualThreads.dispatch(new QueuedTask(batch[i], now));
             }
+        } else if (batch.length > 0) {
+            distributeBatch(batch, rejectedAt);
+            sizingController.wake();
+        }
 
-            BlockingQueue<Runnable> queue = selectQueue();
-            if (!queue.offer(task)) {
-                rejectionHandler.rejectedExecution(task, null);
+        List<Runnable> accepted = new ArrayList<>(batch.length);
+        List<Runnable> rejected = new ArrayList<>();
+        for (int i = 0; i < batch.length; i++) {
+            if (rejectedAt[i]) {
+                recordRejected(batch[i]);
+                rejected.add(batch[i]);
             } else {
-                System.out.println("Task submitted to queue index: " + taskQueues.indexOf(queue));
+                accepted.add(batch[i]);
+            }
+        }
+        metrics.submitted.add(accepted.size());
+        return new BatchResult(List.copyOf(accepted), List.copyOf(rejected));
+    }
+
+    /**
+     * Marks in {@code rejectedAt} the tasks of the batch that found no room.
+     */
+    private void distributeBatch(Runnable[] batch, boolean[] rejectedAt) {
+        Worker[] snapshot = growForBatch(batch.length);
+        int n = snapshot.length;
+        if (n == 0) {
+            // Shut down while the batch was being grown for
+            Arrays.fill(rejectedAt, true);
+            return;
+        }
+        int[] free = new int[n];
+        int[] shareSize = new int[n];
+        for (int w = 0; w < n; w++) {
+            free[w] = snapshot[w].queue().remainingCapacity();
+        }
+
+        // Deal the tasks out; target[i] is the worker of task i
+        int[] target = new int[batch.length];
+        int next = queueSelector.select(snapshot);
+        for (int i = 0; i < batch.length; i++) {
+            int probes = 0;
+            while (probes < n && free[next] == 0) {
+                next = (next + 1) % n;
+                probes++;
+            }
+            if (probes == n) {
+                target[i] = -1;
+                rejectedAt[i] = true;
+                continue;
+            }
+            target[i] = next;
+            shareSize[next]++;
+            free[next]--;
+            next = (next + 1) % n;
+        }
+
+        // Input indices of each share, in input order
+        int[][] shares = new int[n][];
+        for (int w = 0; w < n; w++) {
+            shares[w] = new int[shareSize[w]];
+            shareSize[w] = 0;
+        }
+        for (int i = 0; i < batch.length; i++) {
+            if (target[i] >= 0) {
+                shares[target[i]][shareSize[target[i]]++] = i;
+            }
+        }
+
+        long now = System.nanoTime();
+        QueuedTask[] queued = new QueuedTask[batch.length];
+        for (int w = 0; w < n; w++) {
+            int[] share = shares[w];
+            if (share.length == 0) {
+                continue;
+            }
+            List<QueuedTask> items = new ArrayList<>(share.length);
+            for (int i : share) {
+                queued[i] = new QueuedTask(batch[i], now);
+                items.add(queued[i]);
+            }
+            Worker worker = snapshot[w];
+            int offered = worker.queue().offerAll(items);
+            // Capacity was read before the offer, so other producers may have taken some of it
+            for (int k = offered; k < share.length; k++) {
+                if (!enqueue(workers, queued[share[k]])) {
+                    rejectedAt[share[k]] = true;
+                }
+            }
+            if (worker.isRetired()) {
+                for (int k = 0; k < offered; k++) {
+                    QueuedTask task = queued[share[k]];
+                    if (worker.queue().remove(task) && !enqueue(workers, task)) {
+                        rejectedAt[share[k]] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers the task to any queue of the snapshot, following up if the receiving worker retired
+     * in the meantime.
+     *
+     * @return false if every queue is full
+     */
+    private boolean enqueue(Worker[] snapshot, QueuedTask queued) {
+        while (true) {
+            if (snapshot.length == 0) {
+                snapshot = growIfSaturated(true);
+                if (snapshot.length == 0) {
+                    // Shut down while this task was in flight and every worker has already left
+                    return false;
+                }
+            }
+            Worker worker = offerToAnyQueue(snapshot, queued);
+            if (worker == null) {
+                return false;
+            }
+            // The worker may have retired between the snapshot read and the offer
+            if (!worker.isRetired() || !worker.queue().remove(queued)) {
+                return true;
+            }
+            snapshot = workers;
+        }
+    }
+
+    /**
+     * Offers the task to the worker chosen by the selector and, if that queue is full, to the
+     * remaining workers in order. Returns the worker that accepted the task, or null if all are full.
+     */
+    private Worker offerToAnyQueue(Worker[] snapshot, QueuedTask task) {
+        int n = snapshot.length;
+        int first = queueSelector.select(snapshot);
+        for (int i = 0; i < n; i++) {
+            Worker worker = snapshot[(first + i) % n];
+            if (worker.queue().offer(task)) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One lock round-trip per batch, regardless of how many workers it adds.
+     */
+    private Worker[] growForBatch(int batchSize) {
+        lock.lock();
+        try {
+            int size = workers.length;
+            int idle = Math.max(0, size - activeTasks.get());
+            int missing = Math.min(maxPoolSize - size, batchSize - idle);
+            for (int i = 0; i < missing; i++) {
+                addWorker();
+            }
+            return workers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The only place where single-task submission touches the lock. A producer that finds the lock
+     * taken skips growing, since another producer is already making the same decision; an empty pool
+     * always waits.
+     */
+    private Worker[] growIfSaturated(boolean mustHaveWorker) {
+        if (mustHaveWorker) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            return workers;
+        }
+        try {
+            int size = workers.length;
+            if (!isShutdown && size < maxPoolSize && (size == 0 || activeTasks.get() >= size)) {
+                addWorker();
             }
+            return workers;
         } finally {
             lock.unlock();
         }
     }
 
-    private BlockingQueue<Runnable> selectQueue() {
-        int index = queueIndex.getAndUpdate(i -> (i + 1) % taskQueues.size());
-        return taskQueues.get(index);
+    void recordFailed() {
+        metrics.failed.increment();
+    }
+
+    void recordRejected(Runnable task) {
+        metrics.rejected.increment();
+        listener.onTaskRejected(task);
+    }
+
+    /**
+     * Final rejection: counts the task and throws to the submitter.
+     */
+    void abort(QueuedTask queued) {
+        recordRejected(queued.task);
+        throw new TaskRejectedException(queued.task, isShutdown);
+    }
+
+    /**
+     * {@link DiscardPolicy}: counts and logs the task and drops it.
+     */
+    void discard(QueuedTask queued) {
+        recordRejected(queued.task);
+        System.out.println("Task rejected: " + queued.task);
+        if (queued.task instanceof TaskFuture<?> future) {
+            future.completeExceptionally(new TaskRejectedException(queued.task, isShutdown));
+        }
+        if (queued.task instanceof KeyedLanes.KeyedTask keyed) {
+            startNextKeyed(keyed.key);
+        }
+    }
+
+    /**
+     * {@link CallerRunsPolicy}: runs the task on the submitting thread unless the pool is shut down.
+     */
+    void runInCaller(QueuedTask queued) {
+        if (isShutdown) {
+            abort(queued);
+        }
+        metrics.callerRuns.increment();
+        if (runTask(queued)) {
+            metrics.completedOutsideWorkers.increment();
+        }
+    }
+
+    /**
+     * {@link BlockingPolicy}: retries the offer whenever a worker takes a task, until it succeeds,
+     * the timeout elapses, the pool shuts down or the producer is interrupted.
+     */
+    void offerBlocking(QueuedTask queued, long timeoutNanos) {
+        long start = System.nanoTime();
+        metrics.blockedSubmits.increment();
+        // Published before the first retry, so a worker that frees a slot after that retry signals
+        blockedProducers.incrementAndGet();
+        try {
+            while (true) {
+                capacityLock.lock();
+                try {
+                    // Retried under the lock the workers signal under: a slot freed before this offer is
+                    // seen by it, and the signal for one freed after it cannot come before the await.
+                    // Shutdown signals under the same lock, so it is caught the same way.
+                    if (offer(queued)) {
+                        metrics.submitted.increment();
+                        return;
+                    }
+                    if (isShutdown) {
+                        abort(queued);
+                    }
+                    long remaining = timeoutNanos - (System.nanoTime() - start);
+                    if (remaining <= 0) {
+                        abort(queued);
+                    }
+                    capacityAvailable.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    abort(queued);
+                } finally {
+                    capacityLock.unlock();
+                }
+            }
+        } finally {
+            blockedProducers.decrementAndGet();
+            metrics.submitBlockTime.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@link DiscardOldestPolicy}: evicts from the fullest queue until the new task fits.
+     */
+    void offerDiscardingOldest(QueuedTask queued) {
+        while (true) {
+            if (isShutdown) {
+                abort(queued);
+            }
+            if (offer(queued)) {
+                metrics.submitted.increment();
+                return;
+            }
+            QueuedTask victim = evictOldest();
+            if (victim == null) {
+                abort(queued);
+            }
+            metrics.discarded.increment();
+            if (victim.task instanceof TaskFuture<?> future) {
+                future.completeExceptionally(new TaskRejectedException(victim.task, false));
+            }
+            listener.onTaskDiscarded(victim.task);
+            if (victim.task instanceof KeyedLanes.KeyedTask keyed) {
+                startNextKeyed(keyed.key);
+            }
+        }
+    }
+
+    private QueuedTask evictOldest() {
+        if (virtualThreads != null) {
+            return virtualThreads.evict();
+        }
+        Worker fullest = null;
+        for (Worker worker : workers) {
+            if (fullest == null || worker.queue().size() > fullest.queue().size()) {
+                fullest = worker;
+            }
+        }
+        return fullest != null ? fullest.queue().evict() : null;
+    }
+
+    private void signalCapacity() {
+        capacityLock.lock();
+        try {
+            capacityAvailable.signal();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    // Blocked producers must not sleep through a shutdown until their timeout
+    private void releaseBlockedProducers() {
+        if (blockedProducers.get() == 0) {
+            return;
+        }
+        capacityLock.lock();
+        try {
+            capacityAvailable.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        if (rejectionPolicy == null) throw new NullPointerException("Rejection policy cannot be null");
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public QueueSelector getQueueSelector() {
+        return queueSelector;
+    }
+
+    public void setQueueSelector(QueueSelector queueSelector) {
+        if (queueSelector == null) throw new NullPointerException("Queue selector cannot be null");
+        this.queueSelector = queueSelector;
+    }
+
+    public boolean isWorkStealingEnabled() {
+        return workStealingEnabled;
+    }
+
+    public void setWorkStealingEnabled(boolean workStealingEnabled) {
+        this.workStealingEnabled = workStealingEnabled;
+    }
+
+    public IdleStrategy getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    /**
+     * Trades CPU for dispatch latency: spinning workers pick up a task without a park/unpark
+     * round-trip but keep their cores busy while idle. Idle workers switch at their next poll.
+     */
+    public void setIdleStrategy(IdleStrategy idleStrategy) {
+        if (idleStrategy == null) throw new NullPointerException("Idle strategy cannot be null");
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Takes a task from the tail of the most loaded sibling queue. The head stays with the owner,
+     * so the owner and the thief only meet when the victim queue is down to its last task.
+     */
+    QueuedTask steal(Worker thief) {
+        TaskQueue victim = null;
+        int victimSize = 0;
+        for (Worker candidate : workers) {
+            int size = candidate.queue().size();
+            if (candidate != thief && size > victimSize) {
+                victim = candidate.queue();
+                victimSize = size;
+            }
+        }
+        return victim != null ? victim.steal() : null;
+    }
+
+    public boolean isShutdown() {
+        return isShutdown;
     }
 
+    /**
+     * Stops accepting new tasks. Tasks already queued still run: each worker leaves once its own
+     * queue is empty and there is nothing to steal. Scheduled tasks that have not come due yet are
+     * cancelled. Does not wait; use {@link #awaitTermination}.
+     */
     public void shutdown() {
         lock.lock();
         try {
             isShutdown = true;
+            if (sizingController != null) {
+                sizingController.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+        releaseBlockedProducers();
+        stopTimer(null);
+        tryTerminate();
+    }
+
+    /**
+     * Stops accepting new tasks, removes every queued task, interrupts the running ones and returns
+     * the removed tasks in no particular order. Tasks that ignore interrupts run to completion.
+     */
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            isShutdown = true;
+            stopNow = true;
+            if (sizingController != null) {
+                sizingController.stop();
+            }
             for (Worker worker : workers) {
                 worker.stop();
+                drainTo(worker.queue(), pending);
+                worker.interrupt();
             }
-            System.out.println("Thread pool shutdown initiated");
         } finally {
             lock.unlock();
         }
+        if (virtualThreads != null) {
+            virtualThreads.shutdownNow(pending);
+        }
+        releaseBlockedProducers();
+        keyedLanes.drainTo(pending);
+        stopTimer(pending);
+        tryTerminate();
+        return pending;
     }
 
-    protected void onWorkerExit(Worker worker, BlockingQueue<Runnable> queue) {
-        poolSize.decrementAndGet();
+    /**
+     * Called outside the lock: the timer thread may need it to dispatch its last due task, and
+     * stopping waits for that thread.
+     */
+    private void stopTimer(List<Runnable> pending) {
+        TimingWheel wheel = timer;
+        if (wheel != null) {
+            wheel.stop(pending);
+        }
+    }
+
+    /**
+     * Blocks until every task has finished after a shutdown request, or the timeout elapses.
+     *
+     * @return true if the pool terminated, false if the timeout elapsed first
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!terminated) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = termination.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True once the pool has been shut down and every worker or virtual thread has finished.
+     */
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return terminated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void tryTerminate() {
+        lock.lock();
+        try {
+            if (!terminated && isShutdown && liveWorkers == 0
+                    && (virtualThreads == null || virtualThreads.runningThreads() == 0)) {
+                terminated = true;
+                termination.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void drainTo(TaskQueue queue, List<Runnable> pending) {
+        QueuedTask task;
+        while ((task = queue.poll()) != null) {
+            pending.add(task.submitted());
+        }
+    }
+
+    /**
+     * Adds up to {@code count} workers without exceeding maxPoolSize. Called by the sizing controller.
+     */
+    void growBy(int count) {
+        lock.lock();
+        try {
+            int missing = Math.min(count, maxPoolSize - workers.length);
+            for (int i = 0; i < missing && !isShutdown; i++) {
+                addWorker();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes one idle worker with an empty queue out of the snapshot and stops it, unless that would
+     * drop the pool below corePoolSize. Called by the sizing controller.
+     */
+    void retireIdleWorker() {
+        lock.lock();
+        try {
+            if (workers.length <= corePoolSize) {
+                return;
+            }
+            for (Worker worker : workers) {
+                if (!worker.isBusy() && worker.queue().size() == 0) {
+                    removeWorker(worker);
+                    worker.stop();
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    record Load(int poolSize, int activeTasks, int queuedTasks, long waitCount, long waitSumNanos) {
+    }
+
+    Load load() {
+        Worker[] snapshot = workers;
+        int queued = 0;
+        for (Worker worker : snapshot) {
+            queued += worker.queue().size();
+        }
+        LatencyHistogram.Snapshot waits = metrics.queueWaitTime.snapshot();
+        return new Load(snapshot.length, activeTasks.get(), queued, waits.count(), waits.sumNanos());
+    }
+
+    /**
+     * True while the sizing controller sleeps until the next task because the pool is quiescent.
+     */
+    boolean isSizingParked() {
+        return sizingController != null && sizingController.isParked();
+    }
+
+    protected void onWorkerExit(Worker worker) {
+        int size;
+        lock.lock();
+        try {
+            removeWorker(worker);
+            size = poolSize.get();
+        } finally {
+            lock.unlock();
+        }
+        metrics.workersRetired.increment();
+        metrics.completedOutsideWorkers.add(worker.getCompletedTasks());
+        handOff(worker);
+        listener.onWorkerRetired(worker.getName(), size);
+        // Counted only now: a worker taken out by retireIdleWorker may still be finishing a task or
+        // handing off its queue, and the pool must not terminate before its tasks are accounted for
         lock.lock();
         try {
-            workers.remove(worker);
-            taskQueues.remove(queue);
+            liveWorkers--;
         } finally {
             lock.unlock();
         }
-        System.out.println("Worker terminated. Current pool size: " + poolSize.get());
+        if (isShutdown) {
+            tryTerminate();
+        }
+    }
+
+    /**
+     * Moves the tasks left in an exiting worker's queue to the surviving workers, so retiring a
+     * worker under load, or losing one to an Error, never drops work. Tasks that find no room are
+     * run by the exiting thread itself. After shutdownNow the queue has already been drained.
+     */
+    private void handOff(Worker worker) {
+        QueuedTask task;
+        while (!stopNow && (task = worker.queue().poll()) != null) {
+            if (!enqueue(workers, task) && runTask(task)) {
+                metrics.completedOutsideWorkers.increment();
+            }
+        }
+    }
+
+    private void removeWorker(Worker worker) {
+        Worker[] current = workers;
+        int index = Arrays.asList(current).indexOf(worker);
+        if (index < 0) {
+            return;
+        }
+        worker.retire();
+        Worker[] updated = new Worker[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        workers = updated;
+        poolSize.decrementAndGet();
     }
 
-    protected void onTaskStart() {
+    /**
+     * Runs a dequeued task on the current thread and records its timings.
+     *
+     * @return true if the task completed normally; false if it threw, failed its future or expired
+     */
+    boolean runTask(QueuedTask task) {
+        // The task has left its queue, so one producer blocked on a full queue can retry
+        if (blockedProducers.get() > 0) {
+            signalCapacity();
+        }
+        long startedAt = System.nanoTime();
+        metrics.queueWaitTime.record(startedAt - task.enqueuedAt);
+        if (dropExpiredTasks && task.isExpired(startedAt)) {
+            expire(task);
+            return false;
+        }
         activeTasks.incrementAndGet();
+        boolean failed = true;
+        try {
+            task.run();
+            failed = false;
+        } catch (RuntimeException e) {
+            // A failing task must not take the worker down with it
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        } finally {
+            metrics.executionTime.record(System.nanoTime() - startedAt);
+            if (failed) {
+                metrics.failed.increment();
+            }
+            activeTasks.decrementAndGet();
+        }
+        // Submitted and scheduled tasks catch their own failures and have already counted them
+        return !failed && !(task.task instanceof TaskFuture<?> future && future.failed())
+                && !(task.task instanceof ScheduledTask<?> scheduled && scheduled.failed());
+    }
+
+    private void expire(QueuedTask task) {
+        metrics.expired.increment();
+        if (task.task instanceof TaskFuture<?> future) {
+            future.completeExceptionally(new TimeoutException("Deadline passed before the task started"));
+        }
+        listener.onTaskExpired(task.task);
+    }
+
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * How much earlier one priority level makes a task's effective deadline. A smaller quantum
+     * lets waiting low-priority tasks catch up sooner. Applies to tasks submitted afterwards.
+     */
+    public void setPriorityAging(long quantum, TimeUnit unit) {
+        if (quantum < 0) throw new IllegalArgumentException("Aging quantum cannot be negative");
+        this.agingNanos = unit.toNanos(quantum);
     }
 
-    protected void onTaskFinish() {
-        activeTasks.decrementAndGet();
+    public boolean isDropExpiredTasks() {
+        return dropExpiredTasks;
+    }
+
+    public void setDropExpiredTasks(boolean dropExpiredTasks) {
+        this.dropExpiredTasks = dropExpiredTasks;
+    }
+
+    public void setListener(PoolListener listener) {
+        if (listener == null) throw new NullPointerException("Listener cannot be null");
+        this.listener = listener;
+    }
+
+    public PoolStats snapshot() {
+        Worker[] snapshot = workers;
+        List<PoolStats.WorkerStats> workerStats = new ArrayList<>(snapshot.length);
+        long completed = metrics.completedOutsideWorkers.sum();
+        int queued = 0;
+        for (Worker worker : snapshot) {
+            long workerCompleted = worker.getCompletedTasks();
+            int queueDepth = worker.queue().size();
+            completed += workerCompleted;
+            queued += queueDepth;
+            workerStats.add(new PoolStats.WorkerStats(
+                    worker.getName(), queueDepth, worker.isBusy(), workerCompleted));
+        }
+        int size = snapshot.length;
+        if (virtualThreads != null) {
+            size = virtualThreads.runningThreads();
+            queued = virtualThreads.backlogSize();
+        }
+        return new PoolStats(
+                size,
+                activeTasks.get(),
+                queued,
+                metrics.submitted.sum(),
+                completed,
+                metrics.failed.sum(),
+                metrics.cancelled.sum(),
+                metrics.expired.sum(),
+                metrics.rejected.sum(),
+                metrics.callerRuns.sum(),
+                metrics.discarded.sum(),
+                metrics.blockedSubmits.sum(),
+                metrics.workersStarted.sum(),
+                metrics.workersRetired.sum(),
+                List.copyOf(workerStats),
+                metrics.queueWaitTime.snapshot(),
+                metrics.executionTime.snapshot(),
+                metrics.submitBlockTime.snapshot());
     }
 }
@@ -0,0 +1,29 @@
+package ru.mishazx;
+
+/**
+ * Receives pool lifecycle events. Callbacks run on the thread that caused the event, so they
+ * should be quick and must not throw.
+ */
+public interface PoolListener {
+
+    default void onWorkerStarted(String workerName, int poolSize) {
+    }
+
+    default void onWorkerRetired(String workerName, int poolSize) {
+    }
+
+    default void onTaskRejected(Runnable task) {
+    }
+
+    /**
+     * A queued task was dropped by {@link DiscardOldestPolicy} to make room for a new one.
+     */
+    default void onTaskDiscarded(Runnable task) {
+    }
+
+    /**
+     * A task whose deadline passed while it was queued was dropped instead of run.
+     */
+    default void onTaskExpired(Runnable task) {
+    }
+}
@@ -0,0 +1,25 @@
+package ru.mishazx;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by all producers and workers. Everything is striped so that keeping metrics
+ * enabled costs no more than an uncontended add on the hot path.
+ */
+class PoolMetrics {
+    final LongAdder submitted = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder callerRuns = new LongAdder();
+    final LongAdder discarded = new LongAdder();
+    final LongAdder blockedSubmits = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder cancelled = new LongAdder();
+    final LongAdder expired = new LongAdder();
+    final LongAdder workersStarted = new LongAdder();
+    final LongAdder workersRetired = new LongAdder();
+    // Completions of workers that have left and of virtual threads; live workers count their own
+    final LongAdder completedOutsideWorkers = new LongAdder();
+    final LatencyHistogram queueWaitTime = new LatencyHistogram();
+    final LatencyHistogram executionTime = new LatencyHistogram();
+    final LatencyHistogram submitBlockTime = new LatencyHistogram();
+}
@@ -0,0 +1,125 @@
+package ru.mishazx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background loop that resizes a platform-thread pool between corePoolSize and maxPoolSize.
+ * Every tick it compares the number of idle workers with minSpareThreads and looks at the queue
+ * backlog and the trend of queue wait times:
+ * <ul>
+ *     <li>fewer idle workers than minSpareThreads: add the missing ones at once;</li>
+ *     <li>tasks queued beyond what idle workers can take while waits grow or exceed a tick: add one worker;</li>
+ *     <li>more idle workers than minSpareThreads, nothing queued, for a whole keepAliveTime: retire one
+ *     idle worker per tick until the surplus is gone.</li>
+ * </ul>
+ * Growing reacts within one tick while shrinking needs a sustained surplus, so a burst followed
+ * by a short lull does not make the pool shed the workers it is about to need again.
+ * <p>
+ * Once the pool is quiescent (nothing queued or running, and no worker to add or retire) the loop
+ * parks until the next task is queued, so an idle pool costs no wake-ups.
+ */
+final class PoolSizingController implements Runnable {
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Weight of the newest sample in the wait-time average
+    private static final double WAIT_SMOOTHING = 0.3;
+
+    private final long shrinkAfterTicks;
+    private volatile boolean running = true;
+    // Set before the loop starts, see start()
+    private MyCustomThreadPool pool;
+    private volatile Thread thread;
+    // True while the loop is parked with no timeout; producers clear it and unpark the thread
+    private volatile boolean parked;
+
+    private long lastWaitCount;
+    private long lastWaitSum;
+    private double averageWaitNanos;
+    private long surplusTicks;
+
+    PoolSizingController(long keepAliveNanos) {
+        this.shrinkAfterTicks = Math.max(1, keepAliveNanos / TICK_NANOS);
+    }
+
+    void start(MyCustomThreadPool pool) {
+        this.pool = pool;
+        Thread sizer = new Thread(this, "PoolSizer");
+        sizer.setDaemon(true);
+        thread = sizer;
+        sizer.start();
+    }
+
+    void stop() {
+        running = false;
+        Thread sizer = thread;
+        if (sizer != null) {
+            LockSupport.unpark(sizer);
+        }
+    }
+
+    /**
+     * Called by producers after queueing a task. Costs one volatile read unless the loop is parked.
+     */
+    void wake() {
+        if (parked) {
+            parked = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    boolean isParked() {
+        return parked;
+    }
+
+    @Override
+    public void run() {
+        while (running && !pool.isShutdown()) {
+            LockSupport.parkNanos(this, TICK_NANOS);
+            if (isQuiescent(tick())) {
+                parked = true;
+                surplusTicks = 0;
+                // Re-checked after publishing the flag: a producer that queued a task before it could
+                // see the flag is visible here, and one that queues after it unparks this thread
+                if (running && isQuiescent(pool.load())) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private boolean isQuiescent(MyCustomThreadPool.Load load) {
+        int spare = Math.min(pool.minSpareThreads, pool.maxPoolSize);
+        return load.activeTasks() == 0 && load.queuedTasks() == 0
+                && load.poolSize() >= spare && load.poolSize() <= Math.max(pool.corePoolSize, spare);
+    }
+
+    private MyCustomThreadPool.Load tick() {
+        MyCustomThreadPool.Load load = pool.load();
+
+        long waits = load.waitCount() - lastWaitCount;
+        long meanWait = waits > 0 ? (load.waitSumNanos() - lastWaitSum) / waits : 0;
+        boolean waitsRising = meanWait > averageWaitNanos;
+        averageWaitNanos = WAIT_SMOOTHING * meanWait + (1 - WAIT_SMOOTHING) * averageWaitNanos;
+        lastWaitCount = load.waitCount();
+        lastWaitSum = load.waitSumNanos();
+
+        int idle = Math.max(0, load.poolSize() - load.activeTasks());
+        int spare = pool.minSpareThreads;
+
+        if (idle < spare) {
+            surplusTicks = 0;
+            pool.growBy(spare - idle);
+        } else if (load.queuedTasks() > idle && (waitsRising || meanWait > TICK_NANOS)) {
+            surplusTicks = 0;
+            pool.growBy(1);
+        } else if (idle > spare && load.queuedTasks() == 0) {
+            if (++surplusTicks >= shrinkAfterTicks) {
+                pool.retireIdleWorker();
+            }
+        } else {
+            surplusTicks = 0;
+        }
+        return load;
+    }
+}
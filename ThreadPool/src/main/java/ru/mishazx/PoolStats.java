@@ -0,0 +1,56 @@
+package ru.mishazx;
+
+import java.util.List;
+
+/**
+ * Snapshot of pool counters returned by {@link MyCustomThreadPool#snapshot()}.
+ * In virtual-thread mode {@code poolSize} is the number of running virtual threads and
+ * {@code workers} is empty.
+ * {@code submittedTasks} counts tasks that were accepted into a worker queue; rejected tasks are
+ * counted only in {@code rejectedTasks}, and tasks run by the submitter under
+ * {@link CallerRunsPolicy} only in {@code callerRunsTasks}. {@code submitBlockTime} records how long
+ * producers waited under {@link BlockingPolicy}.
+ */
+public record PoolStats(int poolSize,
+                        int activeTasks,
+                        int queuedTasks,
+                        long submittedTasks,
+                        long completedTasks,
+                        long failedTasks,
+                        long cancelledTasks,
+                        long expiredTasks,
+                        long rejectedTasks,
+                        long callerRunsTasks,
+                        long discardedTasks,
+                        long blockedSubmits,
+                        long workersStarted,
+                        long workersRetired,
+                        List<WorkerStats> workers,
+                        LatencyHistogram.Snapshot queueWaitTime,
+                        LatencyHistogram.Snapshot executionTime,
+                        LatencyHistogram.Snapshot submitBlockTime) {
+
+    public record WorkerStats(String name, int queueDepth, boolean busy, long completedTasks) {
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("pool=%d active=%d queued=%d submitted=%d completed=%d failed=%d cancelled=%d"
+                        + " expired=%d rejected=%d caller-runs=%d discarded=%d blocked=%d"
+                        + " workers started/retired=%d/%d%n",
+                poolSize, activeTasks, queuedTasks, submittedTasks, completedTasks, failedTasks,
+                cancelledTasks, expiredTasks, rejectedTasks, callerRunsTasks, discardedTasks, blockedSubmits,
+                workersStarted, workersRetired));
+        for (WorkerStats worker : workers) {
+            sb.append(String.format("  %-10s queue=%d busy=%b completed=%d%n",
+                    worker.name(), worker.queueDepth(), worker.busy(), worker.completedTasks()));
+        }
+        sb.append("  queue wait: ").append(queueWaitTime).append(System.lineSeparator());
+        sb.append("  execution:  ").append(executionTime);
+        if (blockedSubmits > 0) {
+            sb.append(System.lineSeparator()).append("  submit block: ").append(submitBlockTime);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.mishazx;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples two distinct workers at random and picks the less loaded one. Almost as well balanced
+ * as a full scan, but the cost stays constant as the pool grows.
+ */
+public class PowerOfTwoChoicesQueueSelector implements QueueSelector {
+
+    @Override
+    public int select(Worker[] workers) {
+        int n = workers.length;
+        if (n == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(n);
+        int second = random.nextInt(n - 1);
+        if (second >= first) {
+            second++;
+        }
+        return workers[second].getLoad() < workers[first].getLoad() ? second : first;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.mishazx;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue ordered by {@link QueuedTask#rank}, with insertion order breaking ties. A thief
+ * takes the most urgent task as well, since it is idle and can start that task right away.
+ */
+final class PriorityTaskQueue implements TaskQueue {
+    private static final Comparator<QueuedTask> RANK_ORDER =
+            Comparator.<QueuedTask>comparingLong(task -> task.rank).thenComparingLong(task -> task.sequence);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityQueue<QueuedTask> heap = new PriorityQueue<>(RANK_ORDER);
+    private final int capacity;
+    private long nextSequence = 0;
+    // Written under the lock, read without it by load-aware queue selectors
+    private volatile int count = 0;
+
+    PriorityTaskQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(QueuedTask task) {
+        lock.lock();
+        try {
+            if (count >= capacity) {
+                return false;
+            }
+            task.sequence = nextSequence++;
+            heap.add(task);
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int offerAll(List<QueuedTask> tasks) {
+        lock.lock();
+        try {
+            int accepted = Math.max(0, Math.min(tasks.size(), capacity - count));
+            for (int i = 0; i < accepted; i++) {
+                QueuedTask task = tasks.get(i);
+                task.sequence = nextSequence++;
+                heap.add(task);
+            }
+            if (accepted > 0) {
+                count += accepted;
+                notEmpty.signal();
+            }
+            return accepted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask poll() {
+        if (count == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public QueuedTask steal() {
+        return poll();
+    }
+
+    /**
+     * Removes the task that would run last. Linear in the queue size, which is acceptable on the
+     * overload path.
+     */
+    @Override
+    public QueuedTask evict() {
+        lock.lock();
+        try {
+            QueuedTask last = null;
+            for (QueuedTask task : heap) {
+                if (last == null || RANK_ORDER.compare(task, last) > 0) {
+                    last = task;
+                }
+            }
+            if (last != null) {
+                heap.remove(last);
+                count--;
+            }
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(QueuedTask task) {
+        lock.lock();
+        try {
+            boolean removed = heap.remove(task);
+            if (removed) {
+                count--;
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeTask(Runnable task) {
+        lock.lock();
+        try {
+            boolean removed = heap.removeIf(queued -> queued.task == task);
+            count = heap.size();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count;
+    }
+
+    private QueuedTask take() {
+        QueuedTask task = heap.poll();
+        if (task != null) {
+            count--;
+        }
+        return task;
+    }
+}
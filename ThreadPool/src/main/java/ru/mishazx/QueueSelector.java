@@ -0,0 +1,14 @@
+package ru.mishazx;
+
+/**
+ * Chooses the worker whose queue receives the next submitted task. Implementations are called
+ * concurrently by all producers and must not block.
+ */
+public interface QueueSelector {
+
+    /**
+     * @param workers current, non-empty worker snapshot; must not be modified
+     * @return index into {@code workers}
+     */
+    int select(Worker[] workers);
+}
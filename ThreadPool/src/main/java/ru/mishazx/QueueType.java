@@ -0,0 +1,33 @@
+package ru.mishazx;
+
+/**
+ * Kind of queue that feeds each worker, chosen when the pool is created.
+ */
+public enum QueueType {
+    /** Insertion order; priorities are ignored, deadlines only matter for expiry. */
+    FIFO {
+        @Override
+        TaskQueue newQueue(int capacity) {
+            return new FifoTaskQueue(capacity);
+        }
+    },
+    /** Earliest deadline first, with priorities aging into an effective deadline. */
+    PRIORITY {
+        @Override
+        TaskQueue newQueue(int capacity) {
+            return new PriorityTaskQueue(capacity);
+        }
+    },
+    /**
+     * Insertion order in a preallocated lock-free ring buffer with no node per task. Thieves take
+     * from the head instead of the tail.
+     */
+    RING_BUFFER {
+        @Override
+        TaskQueue newQueue(int capacity) {
+            return new RingBufferTaskQueue(capacity);
+        }
+    };
+
+    abstract TaskQueue newQueue(int capacity);
+}
@@ -0,0 +1,77 @@
+package ru.mishazx;
+
+/**
+ * A submitted task together with the scheduling data a queue needs: when it was enqueued, its
+ * priority and deadline, and the rank derived from them.
+ */
+final class QueuedTask implements Runnable {
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+    /**
+     * Deadline assumed, for ordering only, for a task submitted without one. It puts plain tasks on
+     * the same scale as explicit deadlines: a task due sooner than this runs ahead of plain tasks
+     * submitted with it, a task due later lets them go first.
+     */
+    static final long IMPLICIT_DEADLINE_NANOS = 1_000_000_000L;
+
+    final Runnable task;
+    final long enqueuedAt;
+    final int priority;
+    final long deadline;
+    /**
+     * Effective deadline used for ordering, smaller runs first: the explicit deadline, or
+     * {@link #IMPLICIT_DEADLINE_NANOS} after submission for a task without one, moved one aging
+     * quantum earlier per priority level. The rank is fixed at submission, so a waiting task is
+     * overtaken only by tasks whose rank is smaller: among tasks without a deadline, a low-priority
+     * task waits at most (priority difference x aging quantum) behind newer work.
+     */
+    final long rank;
+    // Tie-breaker assigned by PriorityTaskQueue under its lock
+    long sequence;
+
+    QueuedTask(Runnable task, long enqueuedAt) {
+        this(task, enqueuedAt, 0, NO_DEADLINE, 0);
+    }
+
+    QueuedTask(Runnable task, long enqueuedAt, int priority, long deadline, long agingNanos) {
+        this.task = task;
+        this.enqueuedAt = enqueuedAt;
+        this.priority = priority;
+        this.deadline = deadline;
+        long effectiveDeadline = deadline == NO_DEADLINE ? enqueuedAt + IMPLICIT_DEADLINE_NANOS : deadline;
+        this.rank = effectiveDeadline - boost(priority, agingNanos);
+    }
+
+    boolean hasDeadline() {
+        return deadline != NO_DEADLINE;
+    }
+
+    boolean isExpired(long now) {
+        return hasDeadline() && now - deadline > 0;
+    }
+
+    /**
+     * The runnable as the caller submitted it, without the keyed-execution wrapper.
+     */
+    Runnable submitted() {
+        return task instanceof KeyedLanes.KeyedTask keyed ? keyed.task : task;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+
+    @Override
+    public String toString() {
+        return task.toString();
+    }
+
+    // Saturates instead of overflowing for extreme priorities
+    private static long boost(int priority, long agingNanos) {
+        long limit = Long.MAX_VALUE / 4;
+        if (agingNanos != 0 && Math.abs((long) priority) > limit / agingNanos) {
+            return priority > 0 ? limit : -limit;
+        }
+        return priority * agingNanos;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.mishazx;
+
+/**
+ * Decides what happens to a task that found every queue full or arrived after shutdown. It runs
+ * on the submitting thread, so a policy that waits or runs the task itself slows the producer down
+ * instead of losing work. Set with {@link MyCustomThreadPool#setRejectionPolicy(RejectionPolicy)};
+ * the default is {@link DiscardPolicy}.
+ * <p>
+ * Built-in policies:
+ * <ul>
+ *     <li>{@link DiscardPolicy} - drops the task and logs it;</li>
+ *     <li>{@link AbortPolicy} - throws {@link TaskRejectedException};</li>
+ *     <li>{@link CallerRunsPolicy} - runs the task on the submitting thread;</li>
+ *     <li>{@link BlockingPolicy} - waits for queue space up to a timeout, then aborts;</li>
+ *     <li>{@link DiscardOldestPolicy} - drops the oldest queued task to make room.</li>
+ * </ul>
+ * After shutdown {@link DiscardPolicy} still drops the task; every other built-in policy aborts.
+ */
+public abstract class RejectionPolicy {
+
+    /**
+     * Handles a task that {@code pool} could not accept: run it, hand it back to the pool, drop it
+     * or throw. For a custom policy the pool counts every call as a rejection in
+     * {@link PoolStats#rejectedTasks()}.
+     */
+    public abstract void rejectedExecution(Runnable task, MyCustomThreadPool pool);
+
+    // Built-in policies override this to keep the task's priority and deadline and to do their own accounting
+    void rejected(QueuedTask task, MyCustomThreadPool pool) {
+        pool.recordRejected(task.task);
+        rejectedExecution(task.task, pool);
+    }
+}
@@ -0,0 +1,210 @@
+package ru.mishazx;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Array-backed bounded multi-producer, multi-consumer queue, after Vyukov's bounded queue. Every
+ * slot carries a sequence number telling producers and consumers whose turn it is, so offer and
+ * poll are one CAS each and take no lock. The queue allocates no node per task; the
+ * {@link QueuedTask} it stores is still allocated by the pool for every submission.
+ * <p>
+ * Any thread may offer, and the owner, thieves and eviction all take from the head with the same
+ * CAS, so a thief gets the oldest task rather than the newest. Only the owning worker blocks in
+ * {@link #poll(long, TimeUnit)}: it publishes itself as the waiter before its last emptiness
+ * check, and a producer reads the waiter after publishing its slot, so at least one of them sees
+ * the other and no wakeup is lost. A removed task leaves an empty slot that counts towards
+ * {@link #size()} until a consumer skips it.
+ */
+final class RingBufferTaskQueue implements TaskQueue {
+    private final int capacity;
+    private final AtomicReferenceArray<QueuedTask> slots;
+    private final AtomicLongArray sequences;
+    // Next position to take and to fill; both only grow
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Thread waiter;
+
+    RingBufferTaskQueue(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(QueuedTask task) {
+        long position = tail.get();
+        while (true) {
+            int index = indexOf(position);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, task);
+                    sequences.set(index, position + 1);
+                    Thread parked = waiter;
+                    if (parked != null) {
+                        LockSupport.unpark(parked);
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the task from one lap ago
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Claims a run of free slots with one CAS on the tail. A slot whose sequence equals its
+     * position stays free until some producer moves the tail past it, so the run checked before
+     * the CAS is still free once the CAS succeeds.
+     */
+    @Override
+    public int offerAll(List<QueuedTask> tasks) {
+        int offered = 0;
+        while (offered < tasks.size()) {
+            long position = tail.get();
+            int wanted = tasks.size() - offered;
+            int free = 0;
+            while (free < wanted && sequences.get(indexOf(position + free)) == position + free) {
+                free++;
+            }
+            if (free == 0) {
+                if (sequences.get(indexOf(position)) < position) {
+                    // Full: the slot still holds the task from one lap ago
+                    break;
+                }
+                continue;
+            }
+            if (!tail.compareAndSet(position, position + free)) {
+                continue;
+            }
+            for (int i = 0; i < free; i++) {
+                int index = indexOf(position + i);
+                slots.set(index, tasks.get(offered + i));
+                sequences.set(index, position + i + 1);
+            }
+            offered += free;
+        }
+        if (offered > 0) {
+            Thread parked = waiter;
+            if (parked != null) {
+                LockSupport.unpark(parked);
+            }
+        }
+        return offered;
+    }
+
+    @Override
+    public QueuedTask poll() {
+        long position = head.get();
+        while (true) {
+            int index = indexOf(position);
+            long lag = sequences.get(index) - (position + 1);
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    QueuedTask task = slots.getAndSet(index, null);
+                    sequences.set(index, position + capacity);
+                    if (task != null) {
+                        return task;
+                    }
+                    // Removed in place; move on to the next slot
+                }
+                position = head.get();
+            } else if (lag < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    @Override
+    public QueuedTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        QueuedTask task = poll();
+        if (task != null) {
+            return task;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiter = Thread.currentThread();
+        try {
+            while (true) {
+                task = poll();
+                if (task != null) {
+                    return task;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    @Override
+    public QueuedTask steal() {
+        return poll();
+    }
+
+    @Override
+    public QueuedTask evict() {
+        return poll();
+    }
+
+    @Override
+    public boolean remove(QueuedTask task) {
+        for (long position = head.get(), end = tail.get(); position < end; position++) {
+            int index = indexOf(position);
+            // getAndSet in poll and this CAS decide which side gets the task
+            if (slots.get(index) == task && slots.compareAndSet(index, task, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeTask(Runnable task) {
+        for (long position = head.get(), end = tail.get(); position < end; position++) {
+            int index = indexOf(position);
+            QueuedTask queued = slots.get(index);
+            if (queued != null && queued.task == task && slots.compareAndSet(index, queued, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        // Head first, so a concurrent poll can only make the difference larger, never negative
+        long taken = head.get();
+        long filled = tail.get();
+        return (int) Math.max(0, Math.min(capacity, filled - taken));
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    private int indexOf(long position) {
+        return (int) (position % capacity);
+    }
+}
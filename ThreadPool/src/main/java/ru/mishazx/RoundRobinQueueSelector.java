@@ -0,0 +1,12 @@
+package ru.mishazx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoundRobinQueueSelector implements QueueSelector {
+    private final AtomicInteger queueIndex = new AtomicInteger(0);
+
+    @Override
+    public int select(Worker[] workers) {
+        return Math.floorMod(queueIndex.getAndIncrement(), workers.length);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.mishazx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Future handed out by {@link MyCustomThreadPool#schedule} and its periodic variants. It waits in
+ * the {@link TimingWheel} until due and is then dispatched into a worker queue like any other task.
+ * A periodic task puts itself back into the wheel after each run; it only completes when it is
+ * cancelled, throws, or the pool shuts down.
+ */
+final class ScheduledTask<V> extends CompletableFuture<V> implements ScheduledFuture<V>, Runnable {
+    private final MyCustomThreadPool pool;
+    private final Callable<V> callable;
+    // What the caller passed in, for toString
+    private final Object source;
+    // Zero for a one-shot task, positive for a fixed rate, negative for a fixed delay
+    private final long periodNanos;
+    volatile long deadline;
+    // Set by the thread that ran the callable and read by that same thread in MyCustomThreadPool.runTask
+    private boolean failed;
+
+    // Owned by the timer thread
+    long remainingRounds;
+    TimingWheel.Bucket bucket;
+    ScheduledTask<?> prev;
+    ScheduledTask<?> next;
+
+    ScheduledTask(MyCustomThreadPool pool, Callable<V> callable, Object source, long deadline, long periodNanos) {
+        this.pool = pool;
+        this.callable = callable;
+        this.source = source;
+        this.deadline = deadline;
+        this.periodNanos = periodNanos;
+    }
+
+    boolean isPeriodic() {
+        return periodNanos != 0;
+    }
+
+    @Override
+    public void run() {
+        if (isDone()) {
+            return;
+        }
+        V result;
+        try {
+            result = callable.call();
+        } catch (Throwable e) {
+            failed = true;
+            pool.recordFailed();
+            // As with ScheduledExecutorService, a failed run suppresses the ones after it
+            completeExceptionally(e);
+            return;
+        }
+        if (!isPeriodic()) {
+            complete(result);
+            return;
+        }
+        deadline = periodNanos > 0 ? deadline + periodNanos : System.nanoTime() - periodNanos;
+        if (!isDone()) {
+            pool.reschedule(this);
+        }
+    }
+
+    /**
+     * True if the last run threw. Like {@link TaskFuture#failed()}, it lets the pool count the
+     * failure the future swallowed.
+     */
+    boolean failed() {
+        return failed;
+    }
+
+    /**
+     * Takes the task out of the wheel or its worker queue. A run that has already started is not
+     * interrupted.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            pool.cancelScheduled(this);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other == this) {
+            return 0;
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package ru.mishazx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future handed out by {@link MyCustomThreadPool#submit(Callable)}. It is itself the task placed in
+ * the worker queue. Cancelling it takes it out of that queue, and a copy that a worker dequeues
+ * anyway is skipped without calling the callable.
+ */
+final class TaskFuture<T> extends CompletableFuture<T> implements Runnable {
+    private final MyCustomThreadPool pool;
+    private final Callable<T> callable;
+    // Set by the thread that ran the callable and read by that same thread in MyCustomThreadPool.runTask
+    private boolean failed;
+
+    TaskFuture(MyCustomThreadPool pool, Callable<T> callable) {
+        this.pool = pool;
+        this.callable = callable;
+    }
+
+    @Override
+    public void run() {
+        if (isDone()) {
+            return;
+        }
+        try {
+            complete(callable.call());
+        } catch (Throwable e) {
+            failed = true;
+            // Counted before the future completes, so whoever sees the failure also sees it in the stats
+            pool.recordFailed();
+            completeExceptionally(e);
+        }
+    }
+
+    /**
+     * True if the callable threw. The future swallows the exception, so the pool asks here
+     * instead of relying on {@code run()} to throw.
+     */
+    boolean failed() {
+        return failed;
+    }
+
+    /**
+     * As with any {@link CompletableFuture}, a task that is already running is not interrupted;
+     * only its result is discarded.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            pool.remove(this);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return callable.toString();
+    }
+}
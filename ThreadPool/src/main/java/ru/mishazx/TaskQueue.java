@@ -0,0 +1,49 @@
+package ru.mishazx;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of one worker. The owner takes tasks with {@link #poll}, idle siblings with
+ * {@link #steal}; every other method may be called from any thread.
+ */
+interface TaskQueue {
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(QueuedTask task);
+
+    /**
+     * Offers the tasks in order until one does not fit, locking or claiming slots once for the
+     * whole run and waking the owner once.
+     *
+     * @return how many tasks, counted from the start of the list, were queued
+     */
+    int offerAll(List<QueuedTask> tasks);
+
+    QueuedTask poll();
+
+    QueuedTask poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Takes a task on behalf of another worker, or returns null if there is nothing to take.
+     */
+    QueuedTask steal();
+
+    boolean remove(QueuedTask task);
+
+    /**
+     * Removes the task the queue values least, to make room under {@link DiscardOldestPolicy}.
+     */
+    QueuedTask evict();
+
+    /**
+     * Removes the queued entry that wraps {@code task}, if there is one.
+     */
+    boolean removeTask(Runnable task);
+
+    int size();
+
+    int remainingCapacity();
+}
@@ -0,0 +1,31 @@
+package ru.mishazx;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown to the submitter when a task is finally rejected, either because the pool is shut down
+ * or because the rejection policy gave up on finding room for it.
+ */
+public class TaskRejectedException extends RejectedExecutionException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Runnable task;
+    private final boolean shutdown;
+
+    public TaskRejectedException(Runnable task, boolean shutdown) {
+        super((shutdown ? "Pool is shut down, task rejected: " : "Queues are full, task rejected: ") + task);
+        this.task = task;
+        this.shutdown = shutdown;
+    }
+
+    public Runnable getTask() {
+        return task;
+    }
+
+    /**
+     * True if the task was rejected because the pool had been shut down rather than because it was saturated.
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+}
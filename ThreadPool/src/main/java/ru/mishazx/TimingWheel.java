@@ -0,0 +1,229 @@
+package ru.mishazx;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel behind {@link MyCustomThreadPool#schedule}. A ring of buckets, each covering
+ * one tick, holds intrusive linked lists of pending tasks; a task due more than one revolution
+ * ahead also counts the rounds it still has to wait. Inserting and cancelling are O(1) no matter
+ * how many timers are pending, and a due task is only dispatched into the worker queues, so
+ * waiting costs no worker thread.
+ * <p>
+ * Buckets belong to the single timer thread. Other threads hand new and cancelled tasks over
+ * through lock-free queues that the timer drains at the start of every tick. With nothing
+ * pending the timer parks until the next insertion instead of ticking.
+ */
+final class TimingWheel implements Runnable {
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Consumer<ScheduledTask<?>> dispatcher;
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final Queue<ScheduledTask<?>> added = new ConcurrentLinkedQueue<>();
+    private final Queue<ScheduledTask<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startTime;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    // Timer thread only
+    private long tick;
+    private int pending;
+
+    /**
+     * Starts the timer thread, which hands each task that comes due to {@code dispatcher}.
+     */
+    TimingWheel(Consumer<ScheduledTask<?>> dispatcher) {
+        this(dispatcher, System.nanoTime());
+        thread.start();
+    }
+
+    /**
+     * Does not start the timer thread; the caller drives the wheel through {@link #advanceTo}.
+     */
+    TimingWheel(Consumer<ScheduledTask<?>> dispatcher, long startTime) {
+        this.dispatcher = dispatcher;
+        this.startTime = startTime;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.thread = new Thread(this, "PoolTimer");
+        thread.setDaemon(true);
+    }
+
+    void add(ScheduledTask<?> task) {
+        added.add(task);
+        if (!running) {
+            // Stopped meanwhile; stop() may already have collected what was added
+            task.cancel(false);
+            return;
+        }
+        // Same handshake as an idle worker: the timer sets idle before its last look at the queue
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    void cancel(ScheduledTask<?> task) {
+        cancelled.add(task);
+    }
+
+    /**
+     * Stops the timer thread and waits for it, then cancels every task that has not come due and
+     * adds it to {@code pending} if that is not null.
+     */
+    void stop(List<Runnable> pending) {
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        transferAdded();
+        for (Bucket bucket : wheel) {
+            for (ScheduledTask<?> task = bucket.head; task != null; task = task.next) {
+                if (task.cancel(false) && pending != null) {
+                    pending.add(task);
+                }
+            }
+            bucket.head = null;
+            bucket.tail = null;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (pending == 0 && added.isEmpty()) {
+                awaitWork();
+                continue;
+            }
+            long tickEnd = startTime + (tick + 1) * TICK_NANOS;
+            long sleep = tickEnd - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            runTick();
+        }
+    }
+
+    /**
+     * Runs every tick that has ended by {@code now}. Only for a wheel whose thread was not started.
+     */
+    void advanceTo(long now) {
+        while (startTime + (tick + 1) * TICK_NANOS <= now) {
+            runTick();
+        }
+    }
+
+    private void runTick() {
+        transferAdded();
+        removeCancelled();
+        expire(wheel[(int) (tick & MASK)]);
+        tick++;
+    }
+
+    private void awaitWork() {
+        idle = true;
+        try {
+            while (running && added.isEmpty()) {
+                LockSupport.park(this);
+            }
+        } finally {
+            idle = false;
+        }
+        // The wheel is empty, so it can jump straight to the present
+        tick = Math.max(tick, (System.nanoTime() - startTime) / TICK_NANOS);
+    }
+
+    private void transferAdded() {
+        ScheduledTask<?> task;
+        while ((task = added.poll()) != null) {
+            if (task.isDone()) {
+                continue;
+            }
+            long due = Math.max(tick, (task.deadline - startTime) / TICK_NANOS);
+            task.remainingRounds = (due - tick) / WHEEL_SIZE;
+            wheel[(int) (due & MASK)].append(task);
+            pending++;
+        }
+    }
+
+    private void removeCancelled() {
+        ScheduledTask<?> task;
+        while ((task = cancelled.poll()) != null) {
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+                pending--;
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        ScheduledTask<?> task = bucket.head;
+        while (task != null) {
+            ScheduledTask<?> next = task.next;
+            if (task.isDone()) {
+                bucket.remove(task);
+                pending--;
+            } else if (task.remainingRounds <= 0) {
+                bucket.remove(task);
+                pending--;
+                dispatcher.accept(task);
+            } else {
+                task.remainingRounds--;
+            }
+            task = next;
+        }
+    }
+
+    /**
+     * Doubly linked list threaded through the tasks themselves, so removal needs no search.
+     */
+    static final class Bucket {
+        private ScheduledTask<?> head;
+        private ScheduledTask<?> tail;
+
+        void append(ScheduledTask<?> task) {
+            task.bucket = this;
+            task.prev = tail;
+            task.next = null;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+        }
+
+        void remove(ScheduledTask<?> task) {
+            if (task.prev == null) {
+                head = task.next;
+            } else {
+                task.prev.next = task.next;
+            }
+            if (task.next == null) {
+                tail = task.prev;
+            } else {
+                task.next.prev = task.prev;
+            }
+            task.bucket = null;
+            task.prev = null;
+            task.next = null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.mishazx;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Execution path of a pool created by {@link MyCustomThreadPool#newVirtualThreadPool(int, int)}.
+ * Every running task gets a virtual thread, and concurrency is bounded by permits rather than by
+ * a fixed set of workers. Tasks that find no free permit wait in a bounded backlog; a virtual
+ * thread that finishes its task keeps its permit and drains the backlog before giving it back.
+ * After {@link MyCustomThreadPool#shutdown()} the backlog is still drained; the pool terminates
+ * once every permit is back.
+ */
+final class VirtualThreadDispatcher {
+    // Set by attach before the first dispatch; the threads that read it are started afterwards
+    private MyCustomThreadPool pool;
+    private final PoolMetrics metrics;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final TaskQueue backlog;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("VirtualWorker-", 1).factory();
+    // Threads holding a permit, so that shutdownNow can interrupt them
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    VirtualThreadDispatcher(PoolMetrics metrics, int maxConcurrency, TaskQueue backlog) {
+        this.metrics = metrics;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.backlog = backlog;
+    }
+
+    void attach(MyCustomThreadPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return false if no permit is free and the backlog is full
+     */
+    boolean dispatch(QueuedTask task) {
+        if (permits.tryAcquire()) {
+            start(task);
+            return true;
+        }
+        if (!backlog.offer(task)) {
+            return false;
+        }
+        // A permit released between tryAcquire and offer would otherwise leave the task stranded
+        if (permits.tryAcquire()) {
+            start(null);
+        }
+        return true;
+    }
+
+    int runningThreads() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    boolean remove(Runnable task) {
+        return backlog.removeTask(task);
+    }
+
+    QueuedTask evict() {
+        return backlog.evict();
+    }
+
+    int backlogSize() {
+        return backlog.size();
+    }
+
+    /**
+     * Moves the backlog into {@code pending} and interrupts the running tasks.
+     */
+    void shutdownNow(List<Runnable> pending) {
+        QueuedTask task;
+        while ((task = backlog.poll()) != null) {
+            pending.add(task.submitted());
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    private void start(QueuedTask first) {
+        threadFactory.newThread(() -> drain(first)).start();
+    }
+
+    /**
+     * Runs on a virtual thread that holds one permit.
+     */
+    private void drain(QueuedTask first) {
+        Thread current = Thread.currentThread();
+        threads.add(current);
+        QueuedTask task = first;
+        try {
+            while (true) {
+                if (task != null && pool.runTask(task)) {
+                    metrics.completedOutsideWorkers.increment();
+                }
+                task = backlog.poll();
+                if (task != null) {
+                    continue;
+                }
+                threads.remove(current);
+                permits.release();
+                // Same race as in dispatch, seen from the consumer side
+                if (backlog.size() == 0 || !permits.tryAcquire()) {
+                    return;
+                }
+                threads.add(current);
+            }
+        } finally {
+            if (pool.isShutdown()) {
+                pool.tryTerminate();
+            }
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package ru.mishazx;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class Worker implements Runnable {
-    private final BlockingQueue<Runnable> queue;
+    // How long an idle worker blocks on its own queue before looking at its siblings again
+    private static final long STEAL_SCAN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    // Upper bound on how long a stopped worker may stay blocked before it notices
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // Idle rounds spent in each phase of the spinning strategies
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 10;
+    // Spin and yield rounds are too close together to scan every sibling's queue on each one
+    private static final int STEAL_SCAN_ROUNDS = 32;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final TaskQueue queue;
     private final MyCustomThreadPool pool;
     private volatile boolean running = true;
+    private volatile boolean retired = false;
+    private volatile boolean busy = false;
+    // Written only by the worker thread itself
+    private volatile long completedTasks = 0;
+    // Consecutive polls that found nothing; touched only by the worker thread
+    private int idleRounds = 0;
+    // Idle rounds since the siblings were last scanned; touched only by the worker thread
+    private int roundsSinceScan = 0;
+    private Thread thread;
 
-    public Worker(BlockingQueue<Runnable> queue, MyCustomThreadPool pool) {
+    Worker(TaskQueue queue, MyCustomThreadPool pool) {
         this.queue = queue;
         this.pool = pool;
     }
@@ -16,26 +36,158 @@ public class Worker implements Runnable {
         running = false;
     }
 
+    /**
+     * Interrupts the task this worker is running, if any. Used by {@link MyCustomThreadPool#shutdownNow()}.
+     */
+    void interrupt() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Tasks waiting in this worker's queue plus the one it is running, if any.
+     */
+    public int getLoad() {
+        return queue.size() + (busy ? 1 : 0);
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public String getName() {
+        return thread != null ? thread.getName() : "unstarted";
+    }
+
+    void attach(Thread thread) {
+        this.thread = thread;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    TaskQueue queue() {
+        return queue;
+    }
+
     @Override
     public void run() {
         try {
             while (running) {
-                Runnable task = queue.poll(pool.keepAliveTime, pool.timeUnit);
+                QueuedTask task;
+                try {
+                    task = nextTask();
+                } catch (InterruptedException e) {
+                    // Either shutdownNow, which has cleared running, or a stray interrupt left by a task
+                    continue;
+                }
                 if (task != null) {
-                    pool.onTaskStart();
-                    try {
-                        task.run();
-                    } finally {
-                        pool.onTaskFinish();
-                    }
-                } else if (pool.poolSize.get() > pool.corePoolSize) {
+                    runTask(task);
+                } else if (pool.isShutdown() && queue.size() == 0) {
+                    // Graceful shutdown: nothing left here and nothing to steal
                     break;
                 }
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
         } finally {
-            pool.onWorkerExit(this, queue);
+            pool.onWorkerExit(this);
+        }
+    }
+
+    private void runTask(QueuedTask task) {
+        busy = true;
+        try {
+            if (pool.runTask(task)) {
+                completedTasks++;
+            }
+        } finally {
+            busy = false;
+        }
+    }
+
+    /**
+     * Takes the head of the own queue, otherwise tries to steal from a sibling's queue, otherwise
+     * waits as the pool's {@link IdleStrategy} says. Workers do not retire on their own; the pool's
+     * sizing controller stops surplus idle workers.
+     */
+    private QueuedTask nextTask() throws InterruptedException {
+        IdleStrategy idleStrategy = pool.getIdleStrategy();
+        if (idleStrategy == IdleStrategy.BLOCKING) {
+            return pollBlocking();
+        }
+
+        QueuedTask task = queue.poll();
+        if (task == null && pool.isWorkStealingEnabled() && scansSiblings(idleStrategy)) {
+            task = pool.steal(this);
+        }
+        if (task != null) {
+            idleRounds = 0;
+            return task;
+        }
+        return idle(idleStrategy, idleRounds < Integer.MAX_VALUE ? idleRounds++ : idleRounds);
+    }
+
+    /**
+     * A spinning worker looks at its siblings on the first idle round and then on every
+     * {@value #STEAL_SCAN_ROUNDS}th, while its own queue is polled on every round. Once
+     * {@link IdleStrategy#SPIN_PARK} has backed off to parking, each round is long enough to scan.
+     */
+    private boolean scansSiblings(IdleStrategy idleStrategy) {
+        if (idleRounds == 0 || ++roundsSinceScan >= STEAL_SCAN_ROUNDS
+                || (idleStrategy == IdleStrategy.SPIN_PARK && idleRounds >= SPIN_ROUNDS + YIELD_ROUNDS)) {
+            roundsSinceScan = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * With stealing enabled the wait is sliced so that a backlog building up elsewhere is noticed
+     * while this worker is idle.
+     */
+    private QueuedTask pollBlocking() throws InterruptedException {
+        if (!pool.isWorkStealingEnabled()) {
+            return queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+        }
+
+        QueuedTask task = queue.poll();
+        if (task == null) {
+            task = pool.steal(this);
+        }
+        if (task == null) {
+            task = queue.poll(STEAL_SCAN_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+        }
+        return task;
+    }
+
+    /**
+     * One idle round of a spinning strategy. Returns a task only if the park phase received one,
+     * so that the caller re-checks for shutdown between rounds.
+     */
+    private QueuedTask idle(IdleStrategy idleStrategy, int round) throws InterruptedException {
+        if (idleStrategy == IdleStrategy.BUSY_SPIN || round < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+            return null;
+        }
+        if (idleStrategy == IdleStrategy.SPIN_YIELD || round < SPIN_ROUNDS + YIELD_ROUNDS) {
+            Thread.yield();
+            return null;
+        }
+        long maxPark = pool.isWorkStealingEnabled() ? STEAL_SCAN_INTERVAL_NANOS : IDLE_POLL_NANOS;
+        int doublings = Math.min(round - SPIN_ROUNDS - YIELD_ROUNDS, 30);
+        QueuedTask task = queue.poll(Math.min(MIN_PARK_NANOS << doublings, maxPark), TimeUnit.NANOSECONDS);
+        if (task != null) {
+            idleRounds = 0;
         }
+        return task;
     }
 }
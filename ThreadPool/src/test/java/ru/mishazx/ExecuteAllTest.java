@@ -0,0 +1,161 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class ExecuteAllTest {
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void testEveryAcceptedTaskRunsExactlyOnce(QueueType queueType) throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 4, 1, TimeUnit.SECONDS, 10_000, 0, queueType);
+        int tasks = 10_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+        List<Runnable> batch = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            batch.add(() -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        BatchResult result = pool.executeAll(batch);
+
+        assertTrue(result.allAccepted());
+        assertEquals(batch, result.accepted());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertExactlyOnce(runs);
+        assertEquals(tasks, pool.snapshot().submittedTasks());
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void testResultListsKeepInputOrder(QueueType queueType) throws InterruptedException {
+        // Два занятых потока по 3 места в очереди: первые 6 задач приняты, остальные отклонены, порядок входной
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 3, 0, queueType);
+        pool.setWorkStealingEnabled(false);
+        CountDownLatch release = new CountDownLatch(1);
+        blockAllWorkers(pool, 2, release);
+
+        AtomicInteger executed = new AtomicInteger();
+        List<Runnable> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new NamedTask("task-" + i, executed));
+        }
+
+        BatchResult result = pool.executeAll(batch);
+
+        assertFalse(result.allAccepted());
+        assertEquals(batch.subList(0, 6), result.accepted());
+        assertEquals(batch.subList(6, 10), result.rejected());
+        assertEquals(4, pool.snapshot().rejectedTasks());
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(6, executed.get());
+    }
+
+    @Test
+    void testSameRunnableSubmittedSeveralTimes() throws InterruptedException {
+        // Одинаковые задачи в пачке учитываются по отдельности
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 100, 0);
+        AtomicInteger executed = new AtomicInteger();
+        Runnable task = executed::incrementAndGet;
+
+        BatchResult result = pool.executeAll(Collections.nCopies(50, task));
+
+        assertEquals(50, result.accepted().size());
+        shutdown(pool);
+        assertEquals(50, executed.get());
+    }
+
+    @Test
+    void testBatchAfterShutdownIsRejectedInOrder() {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        pool.shutdown();
+        List<Runnable> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(new NamedTask("task-" + i, new AtomicInteger()));
+        }
+
+        BatchResult result = pool.executeAll(batch);
+
+        assertTrue(result.accepted().isEmpty());
+        assertEquals(batch, result.rejected());
+        assertEquals(5, pool.snapshot().rejectedTasks());
+    }
+
+    @Test
+    void testVirtualThreadBatchKeepsInputOrder() throws InterruptedException {
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        AtomicInteger executed = new AtomicInteger();
+        List<Runnable> batch = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            batch.add(new NamedTask("task-" + i, executed));
+        }
+        BatchResult result = pool.executeAll(batch);
+
+        assertEquals(batch.subList(0, 2), result.accepted());
+        assertEquals(batch.subList(2, 4), result.rejected());
+        release.countDown();
+        shutdown(pool);
+        assertEquals(2, executed.get());
+    }
+
+    @Test
+    void testNullTaskRejectsWholeBatch() {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        List<Runnable> batch = new ArrayList<>();
+        batch.add(() -> { });
+        batch.add(null);
+
+        assertThrows(NullPointerException.class, () -> pool.executeAll(batch));
+        assertEquals(0, pool.snapshot().submittedTasks());
+        pool.shutdown();
+    }
+
+    private static void blockAllWorkers(MyCustomThreadPool pool, int workers, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            int index = i;
+            pool.setQueueSelector(snapshot -> index);
+            pool.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        pool.setQueueSelector(new RoundRobinQueueSelector());
+    }
+
+    private record NamedTask(String name, AtomicInteger executed) implements Runnable {
+        @Override
+        public void run() {
+            executed.incrementAndGet();
+        }
+    }
+}
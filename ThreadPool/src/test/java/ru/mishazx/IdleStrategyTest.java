@@ -0,0 +1,94 @@
+package ru.mishazx;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class IdleStrategyTest {
+
+    @ParameterizedTest
+    @EnumSource(IdleStrategy.class)
+    void testEveryTaskRunsExactlyOnce(IdleStrategy strategy) throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1_000, 0);
+        pool.setIdleStrategy(strategy);
+        int tasks = 2_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.execute(() -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertExactlyOnce(runs);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = IdleStrategy.class, names = "BLOCKING", mode = EnumSource.Mode.EXCLUDE)
+    void testSpinningWorkerStealsFromBlockedOwner(IdleStrategy strategy) throws InterruptedException {
+        // Соседи сканируются не на каждом круге, но задачи из очереди занятого владельца все равно забираются
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1_000, 0);
+        pool.setIdleStrategy(strategy);
+        pool.setQueueSelector(workers -> 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ownerBlocked = new CountDownLatch(1);
+        pool.execute(() -> {
+            ownerBlocked.countDown();
+            await(release);
+        });
+        assertTrue(ownerBlocked.await(1, TimeUnit.SECONDS));
+
+        int tasks = 200;
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(done::countDown);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        shutdown(pool);
+    }
+
+    @ParameterizedTest
+    @EnumSource(IdleStrategy.class)
+    void testWakesUpAfterLongIdle(IdleStrategy strategy) throws InterruptedException {
+        // За 100 мс SPIN_PARK доходит до самого длинного ожидания на очереди
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        pool.setIdleStrategy(strategy);
+        CountDownLatch first = new CountDownLatch(1);
+        pool.execute(first::countDown);
+        assertTrue(first.await(1, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+        CountDownLatch second = new CountDownLatch(1);
+        pool.execute(second::countDown);
+
+        assertTrue(second.await(1, TimeUnit.SECONDS));
+        shutdown(pool);
+    }
+
+    @ParameterizedTest
+    @EnumSource(IdleStrategy.class)
+    void testShutdownStopsIdleWorkers(IdleStrategy strategy) throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 10, 0);
+        pool.setIdleStrategy(strategy);
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(done::countDown);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        shutdown(pool);
+
+        assertEquals(0, pool.snapshot().poolSize());
+    }
+}
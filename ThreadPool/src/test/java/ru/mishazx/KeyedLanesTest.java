@@ -0,0 +1,143 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class KeyedLanesTest {
+
+    @Test
+    void testTasksOfOneKeyRunInSubmissionOrder() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(4, 4, 1, TimeUnit.SECONDS, 1_000, 0);
+        int keys = 8;
+        int tasksPerKey = 500;
+        List<List<Integer>> order = new ArrayList<>();
+        AtomicIntegerArray running = new AtomicIntegerArray(keys);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        for (int k = 0; k < keys; k++) {
+            order.add(new ArrayList<>());
+        }
+        CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+
+        // Ключи чередуются, поэтому задачи одного ключа попадают к разным рабочим потокам
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                int key = k;
+                int sequence = i;
+                pool.executeKeyed(key, () -> {
+                    if (running.incrementAndGet(key) > 1) {
+                        overlapped.set(true);
+                    }
+                    // Задачи ключа не пересекаются, поэтому список ключа не нужно синхронизировать
+                    order.get(key).add(sequence);
+                    running.decrementAndGet(key);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertFalse(overlapped.get());
+        for (int k = 0; k < keys; k++) {
+            List<Integer> keyOrder = order.get(k);
+            assertEquals(tasksPerKey, keyOrder.size());
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertEquals(i, keyOrder.get(i), "key " + k);
+            }
+        }
+    }
+
+    @Test
+    void testBlockedKeyDoesNotHoldBackOtherKeys() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 10, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executedA = new AtomicInteger();
+        pool.executeKeyed("a", () -> await(release));
+        pool.executeKeyed("a", executedA::incrementAndGet);
+
+        CountDownLatch doneB = new CountDownLatch(1);
+        pool.executeKeyed("b", doneB::countDown);
+
+        assertTrue(doneB.await(1, TimeUnit.SECONDS));
+        assertEquals(0, executedA.get());
+        release.countDown();
+        shutdown(pool);
+        assertEquals(1, executedA.get());
+    }
+
+    @Test
+    void testShutdownNowReturnsWaitingTasks() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.executeKeyed("key", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        AtomicInteger executed = new AtomicInteger();
+        Runnable second = executed::incrementAndGet;
+        Runnable third = executed::incrementAndGet;
+        pool.executeKeyed("key", second);
+        pool.executeKeyed("key", third);
+
+        List<Runnable> pending = pool.shutdownNow();
+
+        assertEquals(List.of(second, third), pending);
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(0, executed.get());
+    }
+
+    @Test
+    void testPutBackLeavesTaskForDrain() {
+        // Следующая задача ключа, которую не успели отправить до shutdownNow, возвращается вместе с остальными
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        KeyedLanes lanes = new KeyedLanes();
+        Runnable first = () -> { };
+        Runnable second = () -> { };
+        Runnable third = () -> { };
+        assertNotNull(lanes.enqueue(pool, "key", first));
+        assertNull(lanes.enqueue(pool, "key", second));
+        assertNull(lanes.enqueue(pool, "key", third));
+
+        KeyedLanes.KeyedTask next = lanes.advance("key");
+        assertSame(second, next.task);
+        assertTrue(lanes.putBack(next));
+
+        List<Runnable> pending = new ArrayList<>();
+        lanes.drainTo(pending);
+        assertEquals(List.of(second, third), pending);
+        assertNull(lanes.advance("key"));
+        pool.shutdown();
+    }
+
+    @Test
+    void testPutBackFailsOnceLaneIsDrained() {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        KeyedLanes lanes = new KeyedLanes();
+        lanes.enqueue(pool, "key", () -> { });
+        lanes.enqueue(pool, "key", () -> { });
+        KeyedLanes.KeyedTask next = lanes.advance("key");
+
+        List<Runnable> pending = new ArrayList<>();
+        lanes.drainTo(pending);
+
+        // Полоса уже разобрана без этой задачи, поэтому вызывающий должен выполнить ее сам
+        assertTrue(pending.isEmpty());
+        assertFalse(lanes.putBack(next));
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private static final int BUCKETS = LatencyHistogram.bucketOf(Long.MAX_VALUE) + 1;
+
+    @Test
+    void testSmallValuesHaveExactBuckets() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value, LatencyHistogram.upperBoundOf(value));
+        }
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        // С 16 каждая степень двойки делится на восемь корзин: 16-17, 18-19, ..., 30-31, затем 32-35
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+        assertEquals(16, LatencyHistogram.bucketOf(17));
+        assertEquals(17, LatencyHistogram.bucketOf(18));
+        assertEquals(17, LatencyHistogram.upperBoundOf(16));
+        assertEquals(31, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(30)));
+        assertEquals(24, LatencyHistogram.bucketOf(32));
+        assertEquals(24, LatencyHistogram.bucketOf(35));
+        assertEquals(25, LatencyHistogram.bucketOf(36));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(BUCKETS - 1));
+    }
+
+    @Test
+    void testBucketsAreContiguousAndNarrow() {
+        // Каждое значение от верхней границы корзины до следующей попадает ровно в следующую корзину
+        for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper), "bucket " + bucket);
+            assertEquals(bucket + 1, LatencyHistogram.bucketOf(upper + 1), "bucket " + bucket);
+            if (bucket >= 8) {
+                long lower = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+                assertTrue(upper - lower + 1 <= lower / 8, "bucket " + bucket + " is wider than 12.5%");
+            }
+        }
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.meanNanos());
+        assertEquals(0, snapshot.percentileNanos(0.5));
+        assertEquals(0, snapshot.percentileNanos(0.99));
+        assertEquals(0, snapshot.maxNanos());
+    }
+
+    @Test
+    void testPercentilesOfTwoClusters() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.count());
+        assertEquals(90 * 5 + 10 * 1_000, snapshot.sumNanos());
+        assertEquals(5, snapshot.percentileNanos(0.5));
+        assertEquals(5, snapshot.percentileNanos(0.9));
+        // Граница корзины 960-1023 обрезается наблюдаемым максимумом
+        assertEquals(1_000, snapshot.percentileNanos(0.91));
+        assertEquals(1_000, snapshot.percentileNanos(1.0));
+    }
+
+    @Test
+    void testPercentilesOfUniformDistributionStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int values = 100_000;
+        for (int value = 1; value <= values; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        for (double percentile : new double[] {0.1, 0.5, 0.9, 0.99, 0.999}) {
+            long exact = (long) Math.ceil(percentile * values);
+            long reported = snapshot.percentileNanos(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 8,
+                    "p" + percentile * 100 + " reported " + reported + " for " + exact);
+        }
+        assertEquals(values, snapshot.percentileNanos(1.0));
+        assertEquals((values + 1) / 2.0, snapshot.meanNanos(), 1e-9);
+    }
+
+    @Test
+    void testNegativeDurationsCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.count());
+        assertEquals(0, snapshot.sumNanos());
+        assertEquals(0, snapshot.percentileNanos(1.0));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class MyCustomThreadPoolTest {
+
+    @Test
+    void testNoTaskLostWhileWorkersAreAddedAndRemoved() throws InterruptedException {
+        // Производители отправляют задачи, пока отдельный поток постоянно добавляет и убирает рабочие потоки
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 8, 0, TimeUnit.SECONDS, 100_000, 0);
+        int producers = 4;
+        int tasksPerProducer = 25_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(producers * tasksPerProducer);
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread churn = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                pool.growBy(2);
+                Thread.yield();
+                pool.retireIdleWorker();
+                pool.retireIdleWorker();
+            }
+        });
+        churn.start();
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * tasksPerProducer;
+            threads[p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < tasksPerProducer; i++) {
+                        int index = base + i;
+                        pool.execute(() -> {
+                            runs.incrementAndGet(index);
+                            done.countDown();
+                        });
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        churn.interrupt();
+        churn.join();
+        shutdown(pool);
+
+        assertExactlyOnce(runs);
+        PoolStats stats = pool.snapshot();
+        assertEquals(producers * tasksPerProducer, stats.submittedTasks());
+        assertEquals(producers * tasksPerProducer, stats.completedTasks());
+        assertTrue(stats.workersRetired() > 1, "workers were retired during the run");
+    }
+}
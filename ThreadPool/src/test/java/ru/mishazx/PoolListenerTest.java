@@ -0,0 +1,104 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class PoolListenerTest {
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final List<String> retired = new CopyOnWriteArrayList<>();
+    private final PoolListener listener = new PoolListener() {
+        @Override
+        public void onWorkerStarted(String workerName, int poolSize) {
+            started.add(workerName + "@" + poolSize);
+        }
+
+        @Override
+        public void onWorkerRetired(String workerName, int poolSize) {
+            retired.add(workerName + "@" + poolSize);
+        }
+    };
+
+    @Test
+    void testWorkersStartedOnFirstTaskAndWhenGrowing() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 4, 1, TimeUnit.MINUTES, 100, 0);
+        pool.setListener(listener);
+        // Потоки создаются только первой задачей
+        assertTrue(started.isEmpty());
+
+        runOneTask(pool);
+        assertEquals(2, started.size());
+        assertEquals(List.of(1, 2), started.stream().map(PoolListenerTest::sizeOf).toList());
+
+        pool.growBy(5);
+        assertEquals(List.of(1, 2, 3, 4), started.stream().map(PoolListenerTest::sizeOf).toList());
+        assertEquals(4, names(started).size());
+        assertEquals(4, pool.snapshot().workersStarted());
+
+        shutdown(pool);
+    }
+
+    @Test
+    void testRetiredWorkerIsReported() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 2, 1, TimeUnit.MINUTES, 100, 0);
+        pool.setListener(listener);
+        runOneTask(pool);
+        pool.growBy(1);
+
+        eventually(() -> {
+            pool.retireIdleWorker();
+            return pool.snapshot().poolSize() == 1;
+        }, 1_000, "no worker retired");
+        // Событие приходит из уходящего потока, уже после того как его убрали из пула
+        eventually(() -> retired.size() == 1, 1_000, "retirement not reported");
+        assertEquals(1, sizeOf(retired.get(0)));
+        assertTrue(names(started).contains(nameOf(retired.get(0))));
+
+        // Порог corePoolSize не дает убрать последний поток
+        pool.retireIdleWorker();
+        assertEquals(1, pool.snapshot().poolSize());
+        shutdown(pool);
+    }
+
+    @Test
+    void testShutdownReportsEveryWorkerOnce() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(3, 3, 1, TimeUnit.MINUTES, 100, 0);
+        pool.setListener(listener);
+        runOneTask(pool);
+
+        shutdown(pool);
+
+        assertEquals(3, retired.size());
+        assertEquals(names(started), names(retired));
+        // Каждый поток сообщает размер пула после своего ухода
+        assertEquals(List.of(0, 1, 2), retired.stream().map(PoolListenerTest::sizeOf).sorted().toList());
+        assertEquals(3, pool.snapshot().workersRetired());
+    }
+
+    private static void runOneTask(MyCustomThreadPool pool) throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        pool.execute(ran::countDown);
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+    }
+
+    private static Set<String> names(List<String> events) {
+        return events.stream().map(PoolListenerTest::nameOf).collect(Collectors.toSet());
+    }
+
+    private static String nameOf(String event) {
+        return event.substring(0, event.lastIndexOf('@'));
+    }
+
+    private static int sizeOf(String event) {
+        return Integer.parseInt(event.substring(event.lastIndexOf('@') + 1));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class PoolSizingTest {
+
+    @Test
+    void testNoThreadsStartBeforeFirstTask() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 4, 1, TimeUnit.SECONDS, 10, 3);
+        assertEquals(0, pool.snapshot().poolSize());
+
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(done::countDown);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        // Первая задача запускает max(corePoolSize, minSpareThreads) потоков
+        assertEquals(3, pool.snapshot().poolSize());
+        shutdown(pool);
+    }
+
+    @Test
+    void testShutdownBeforeFirstTaskTerminatesWithoutThreads() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 4, 1, TimeUnit.SECONDS, 10, 0);
+        pool.setRejectionPolicy(new AbortPolicy());
+
+        shutdown(pool);
+
+        assertEquals(0, pool.snapshot().workersStarted());
+        assertThrows(TaskRejectedException.class, () -> pool.execute(() -> { }));
+    }
+
+    @Test
+    void testParksWhenIdleAndGrowsToKeepSpareWorkers() throws InterruptedException {
+        // Два запасных потока: когда оба заняты, контроллер добавляет еще два
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 4, 1, TimeUnit.SECONDS, 10, 2);
+        CountDownLatch warmUp = new CountDownLatch(1);
+        pool.execute(warmUp::countDown);
+        assertTrue(warmUp.await(1, TimeUnit.SECONDS));
+        eventually(pool::isSizingParked, 1_000, "sizing controller did not park on an idle pool");
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        eventually(() -> pool.snapshot().poolSize() == 4, 1_000, "pool did not grow to keep spare workers");
+        assertFalse(pool.isSizingParked());
+
+        release.countDown();
+        shutdown(pool);
+    }
+
+    @Test
+    void testShrinksToCorePoolSizeAfterKeepAlive() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 4, 100, TimeUnit.MILLISECONDS, 10, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(4);
+        // Каждая задача застает все потоки занятыми, поэтому пул растет до maxPoolSize
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertEquals(4, pool.snapshot().poolSize());
+
+        release.countDown();
+
+        eventually(() -> pool.snapshot().poolSize() == 1, 2_000, "pool did not shrink to corePoolSize");
+        eventually(pool::isSizingParked, 1_000, "sizing controller did not park after shrinking");
+        assertEquals(1, pool.snapshot().poolSize());
+        assertEquals(3, pool.snapshot().workersRetired());
+        shutdown(pool);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.mishazx;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Helpers shared by the pool tests.
+ */
+final class PoolTestSupport {
+
+    private PoolTestSupport() {
+    }
+
+    static void assertExactlyOnce(AtomicIntegerArray runs) {
+        for (int i = 0; i < runs.length(); i++) {
+            assertEquals(1, runs.get(i), "task " + i);
+        }
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Polls {@code condition} every few milliseconds and fails if it does not hold within {@code timeoutMillis}.
+     */
+    static void eventually(BooleanSupplier condition, long timeoutMillis, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    static void shutdown(MyCustomThreadPool pool) throws InterruptedException {
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
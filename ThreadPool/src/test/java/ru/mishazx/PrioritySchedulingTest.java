@@ -0,0 +1,164 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class PrioritySchedulingTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> order = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testHigherPriorityRunsFirst() throws InterruptedException {
+        MyCustomThreadPool pool = blockedPriorityPool();
+
+        pool.execute(record("low"), 0);
+        pool.execute(record("high"), 10);
+        pool.execute(record("mid"), 5);
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(List.of("high", "mid", "low"), order);
+    }
+
+    @Test
+    void testEqualRanksKeepSubmissionOrder() throws InterruptedException {
+        MyCustomThreadPool pool = blockedPriorityPool();
+        // Без старения все задачи одного приоритета получают одинаковый сдвиг и идут в порядке отправки
+        pool.setPriorityAging(0, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 5; i++) {
+            pool.execute(record("task" + i), 3);
+        }
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(List.of("task0", "task1", "task2", "task3", "task4"), order);
+    }
+
+    @Test
+    void testLowPriorityTaskAgesPastNewerHighPriorityWork() {
+        // Время постановки задается явно, поэтому результат не зависит от скорости теста
+        PriorityTaskQueue queue = new PriorityTaskQueue(10);
+        long aging = MILLIS;
+        QueuedTask low = new QueuedTask(() -> { }, 0, 0, QueuedTask.NO_DEADLINE, aging);
+        // Приоритет 10 дает фору в 10 мс: задача, отправленная через 5 мс, еще обгоняет низкоприоритетную
+        QueuedTask earlyHigh = new QueuedTask(() -> { }, 5 * MILLIS, 10, QueuedTask.NO_DEADLINE, aging);
+        // а отправленная через 20 мс уже встает за ней
+        QueuedTask lateHigh = new QueuedTask(() -> { }, 20 * MILLIS, 10, QueuedTask.NO_DEADLINE, aging);
+        queue.offer(lateHigh);
+        queue.offer(low);
+        queue.offer(earlyHigh);
+
+        assertSame(earlyHigh, queue.poll());
+        assertSame(low, queue.poll());
+        assertSame(lateHigh, queue.poll());
+    }
+
+    @Test
+    void testTighterDeadlineRunsFirst() throws InterruptedException {
+        MyCustomThreadPool pool = blockedPriorityPool();
+
+        pool.execute(record("1s"), 0, 1, TimeUnit.SECONDS);
+        pool.execute(record("5ms"), 0, 5, TimeUnit.MILLISECONDS);
+        pool.execute(record("100ms"), 0, 100, TimeUnit.MILLISECONDS);
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(List.of("5ms", "100ms", "1s"), order);
+    }
+
+    @Test
+    void testDeadlinesAndPlainTasksShareOneScale() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10);
+        long aging = 10 * MILLIS;
+        QueuedTask plain = new QueuedTask(() -> { }, 0, 0, QueuedTask.NO_DEADLINE, aging);
+        QueuedTask soon = new QueuedTask(() -> { }, 0, 0, 50 * MILLIS, aging);
+        QueuedTask far = new QueuedTask(() -> { }, 0, 0, 10_000 * MILLIS, aging);
+        // Приоритет 5 сдвигает задачу без дедлайна на 50 мс, но не раньше дедлайна в 50 мс
+        QueuedTask urgentPlain = new QueuedTask(() -> { }, 0, 5, QueuedTask.NO_DEADLINE, aging);
+        queue.offer(far);
+        queue.offer(plain);
+        queue.offer(urgentPlain);
+        queue.offer(soon);
+
+        assertSame(soon, queue.poll());
+        assertSame(urgentPlain, queue.poll());
+        assertSame(plain, queue.poll());
+        assertSame(far, queue.poll());
+    }
+
+    @Test
+    void testExpiredTasksAreDroppedAndCounted() throws Exception {
+        MyCustomThreadPool pool = blockedPriorityPool();
+        pool.setDropExpiredTasks(true);
+        List<Runnable> expired = new CopyOnWriteArrayList<>();
+        pool.setListener(new PoolListener() {
+            @Override
+            public void onTaskExpired(Runnable task) {
+                expired.add(task);
+            }
+        });
+        Runnable late = record("late");
+        pool.execute(late, 0, 1, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> lateFuture = pool.submit(() -> "late", 0, 1, TimeUnit.MILLISECONDS);
+        pool.execute(record("in time"), 0, 500, TimeUnit.MILLISECONDS);
+        pool.execute(record("plain"));
+
+        // Оба дедлайна истекают, пока рабочий поток занят
+        Thread.sleep(20);
+        release.countDown();
+        shutdown(pool);
+
+        assertEquals(List.of("in time", "plain"), order);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> lateFuture.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(2, pool.snapshot().expiredTasks());
+        assertEquals(2, expired.size());
+        assertTrue(expired.contains(late));
+    }
+
+    @Test
+    void testExpiredTasksRunWhenDroppingIsOff() throws InterruptedException {
+        MyCustomThreadPool pool = blockedPriorityPool();
+        assertFalse(pool.isDropExpiredTasks());
+
+        pool.execute(record("late"), 0, 1, TimeUnit.MILLISECONDS);
+        Thread.sleep(20);
+        release.countDown();
+        shutdown(pool);
+
+        assertEquals(List.of("late"), order);
+        assertEquals(0, pool.snapshot().expiredTasks());
+    }
+
+    /**
+     * One worker with a PRIORITY queue, busy until {@link #release}, so everything submitted
+     * afterwards waits in its queue and runs in rank order.
+     */
+    private MyCustomThreadPool blockedPriorityPool() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 100, 0, QueueType.PRIORITY);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return pool;
+    }
+
+    private Runnable record(String name) {
+        return () -> order.add(name);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class QueueSelectorTest {
+    private static final int CAPACITY = 2;
+
+    static Stream<Arguments> selectors() {
+        return Stream.of(
+                Arguments.of("round-robin", new RoundRobinQueueSelector()),
+                Arguments.of("least-loaded", new LeastLoadedQueueSelector()),
+                Arguments.of("power-of-two-choices", new PowerOfTwoChoicesQueueSelector()),
+                Arguments.of("always-first", (QueueSelector) workers -> 0));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("selectors")
+    void testFallsBackToOtherQueuesBeforeRejecting(String name, QueueSelector selector) throws InterruptedException {
+        // Оба потока заняты, воровство выключено: принимаются ровно 2 * CAPACITY задачи, следующая отклоняется
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, CAPACITY, 0);
+        pool.setWorkStealingEnabled(false);
+        pool.setRejectionPolicy(new AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        blockWorker(pool, 0, release);
+        blockWorker(pool, 1, release);
+
+        pool.setQueueSelector(selector);
+        AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; i < 2 * CAPACITY; i++) {
+            pool.execute(executed::incrementAndGet);
+        }
+        assertThrows(TaskRejectedException.class, () -> pool.execute(executed::incrementAndGet));
+
+        PoolStats stats = pool.snapshot();
+        for (PoolStats.WorkerStats worker : stats.workers()) {
+            assertEquals(CAPACITY, worker.queueDepth());
+        }
+        assertEquals(1, stats.rejectedTasks());
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(2 * CAPACITY, executed.get());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("selectors")
+    void testSelectsIndexWithinSnapshot(String name, QueueSelector selector) {
+        MyCustomThreadPool pool = new MyCustomThreadPool(3, 3, 1, TimeUnit.SECONDS, 10, 0);
+        Worker[] workers = newWorkers(pool, 3);
+        for (int i = 0; i < 1_000; i++) {
+            int index = selector.select(workers);
+            assertTrue(index >= 0 && index < workers.length);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void testLoadAwareSelectorsAvoidLoadedWorker() {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        Worker[] workers = newWorkers(pool, 3);
+        workers[0].queue().offer(new QueuedTask(() -> { }, System.nanoTime()));
+        workers[2].queue().offer(new QueuedTask(() -> { }, System.nanoTime()));
+
+        // Полный просмотр всегда находит единственный свободный поток
+        QueueSelector leastLoaded = new LeastLoadedQueueSelector();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, leastLoaded.select(workers));
+        }
+        // Из двух потоков выборка всегда берет оба и выбирает свободный
+        Worker[] pair = {workers[0], workers[1]};
+        QueueSelector powerOfTwo = new PowerOfTwoChoicesQueueSelector();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, powerOfTwo.select(pair));
+        }
+        pool.shutdown();
+    }
+
+    private static Worker[] newWorkers(MyCustomThreadPool pool, int count) {
+        Worker[] workers = new Worker[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = new Worker(QueueType.FIFO.newQueue(10), pool);
+        }
+        return workers;
+    }
+
+    /**
+     * Sends a task that holds worker {@code index} until {@code release} opens.
+     */
+    private static void blockWorker(MyCustomThreadPool pool, int index, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        pool.setQueueSelector(workers -> index);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,215 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class RejectionPolicyTest {
+    private final CountDownLatch workerRelease = new CountDownLatch(1);
+
+    @Test
+    void testDefaultPolicyDropsTaskWithoutThrowing() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        assertInstanceOf(DiscardPolicy.class, pool.getRejectionPolicy());
+        AtomicBoolean ran = new AtomicBoolean();
+
+        pool.execute(() -> ran.set(true));
+        CompletableFuture<Integer> future = pool.submit(() -> 42);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TaskRejectedException.class, error.getCause());
+        assertEquals(2, pool.snapshot().rejectedTasks());
+
+        release(pool);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testDiscardPolicyDropsAfterShutdown() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 1, 0);
+        shutdown(pool);
+
+        pool.execute(() -> { });
+
+        assertEquals(1, pool.snapshot().rejectedTasks());
+    }
+
+    @Test
+    void testDiscardedKeyedTaskLetsItsKeyMoveOn() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        AtomicInteger executed = new AtomicInteger();
+
+        // Первая задача ключа отброшена; следующая задача с тем же ключом не должна ждать ее вечно
+        pool.executeKeyed("key", executed::incrementAndGet);
+        release(pool);
+        CountDownLatch done = new CountDownLatch(1);
+        pool.executeKeyed("key", done::countDown);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertEquals(0, executed.get());
+    }
+
+    @Test
+    void testAbortPolicyThrowsToSubmitter() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        pool.setRejectionPolicy(new AbortPolicy());
+        Runnable task = () -> { };
+
+        TaskRejectedException error = assertThrows(TaskRejectedException.class, () -> pool.execute(task));
+        assertSame(task, error.getTask());
+        assertFalse(error.isShutdown());
+
+        release(pool);
+        shutdown(pool);
+        error = assertThrows(TaskRejectedException.class, () -> pool.execute(task));
+        assertTrue(error.isShutdown());
+        assertEquals(2, pool.snapshot().rejectedTasks());
+    }
+
+    @Test
+    void testCallerRunsPolicyRunsOnSubmittingThread() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        pool.setRejectionPolicy(new CallerRunsPolicy());
+        AtomicReference<Thread> runner = new AtomicReference<>();
+
+        pool.execute(() -> runner.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), runner.get());
+        PoolStats stats = pool.snapshot();
+        assertEquals(1, stats.callerRunsTasks());
+        assertEquals(0, stats.rejectedTasks());
+        release(pool);
+    }
+
+    @Test
+    void testBlockingPolicyWaitsForRoom() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        pool.setRejectionPolicy(new BlockingPolicy(10, TimeUnit.SECONDS));
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> pool.execute(done::countDown));
+        producer.start();
+
+        eventually(() -> producer.getState() == Thread.State.WAITING
+                || producer.getState() == Thread.State.TIMED_WAITING, 1_000, "producer did not block");
+        assertEquals(1, done.getCount());
+
+        release(pool);
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        producer.join(1_000);
+        shutdown(pool);
+        assertEquals(1, pool.snapshot().blockedSubmits());
+        assertEquals(0, pool.snapshot().rejectedTasks());
+    }
+
+    @Test
+    void testBlockingPolicyAbortsAfterTimeout() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        pool.setRejectionPolicy(new BlockingPolicy(50, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(TaskRejectedException.class, () -> pool.execute(() -> { }));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, pool.snapshot().rejectedTasks());
+        release(pool);
+    }
+
+    @Test
+    void testShutdownWakesBlockedProducer() throws InterruptedException {
+        MyCustomThreadPool pool = saturatedPool();
+        pool.setRejectionPolicy(new BlockingPolicy(1, TimeUnit.MINUTES));
+        AtomicReference<TaskRejectedException> error = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                pool.execute(() -> { });
+            } catch (TaskRejectedException e) {
+                error.set(e);
+            }
+        });
+        producer.start();
+        eventually(() -> pool.snapshot().blockedSubmits() == 1, 1_000, "producer did not block");
+
+        pool.shutdown();
+
+        producer.join(1_000);
+        assertFalse(producer.isAlive());
+        assertNotNull(error.get());
+        assertTrue(error.get().isShutdown());
+        release(pool);
+    }
+
+    @Test
+    void testBlockedProducersAreNotLeftWaiting() throws InterruptedException {
+        // Очередь на одну задачу и минутный таймаут: потерянный сигнал оставил бы производителя ждать до таймаута
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1, 0);
+        pool.setRejectionPolicy(new BlockingPolicy(1, TimeUnit.MINUTES));
+        int producers = 4;
+        int tasksPerProducer = 5_000;
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    pool.execute(done::countDown);
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(20, TimeUnit.SECONDS), "tasks left: " + done.getCount());
+        shutdown(pool);
+        assertEquals(0, pool.snapshot().rejectedTasks());
+    }
+
+    @Test
+    void testDiscardOldestPolicyReplacesQueuedTask() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 1, 0);
+        pool.setRejectionPolicy(new DiscardOldestPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        blockWorker(pool, release);
+        CompletableFuture<String> oldest = pool.submit(() -> "oldest");
+        CountDownLatch newest = new CountDownLatch(1);
+
+        pool.execute(newest::countDown);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> oldest.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TaskRejectedException.class, error.getCause());
+        release.countDown();
+        assertTrue(newest.await(1, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertEquals(1, pool.snapshot().discardedTasks());
+    }
+
+    /**
+     * One worker busy with a blocked task and its single queue slot taken, so the next task is rejected.
+     */
+    private MyCustomThreadPool saturatedPool() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 1, 0);
+        blockWorker(pool, workerRelease);
+        pool.execute(() -> { });
+        return pool;
+    }
+
+    private void release(MyCustomThreadPool pool) throws InterruptedException {
+        workerRelease.countDown();
+        eventually(() -> pool.snapshot().activeTasks() == 0 && pool.snapshot().queuedTasks() == 0,
+                1_000, "pool did not drain");
+    }
+
+    private static void blockWorker(MyCustomThreadPool pool, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+    }
+}
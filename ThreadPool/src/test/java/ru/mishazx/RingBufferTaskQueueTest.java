@@ -0,0 +1,237 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class RingBufferTaskQueueTest {
+
+    @Test
+    void testFullAndEmpty() {
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(4);
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(item(0, i)));
+        }
+        assertFalse(queue.offer(item(0, 4)));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, sequenceOf(queue.poll()));
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+        assertEquals(4, queue.remainingCapacity());
+    }
+
+    @Test
+    void testWrapsAroundKeepingOrder() {
+        // Емкость 3 и по 2 задачи за круг: позиции головы и хвоста многократно переходят через конец массива
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(3);
+        int next = 0;
+        int expected = 0;
+        for (int lap = 0; lap < 100; lap++) {
+            assertTrue(queue.offer(item(0, next++)));
+            assertTrue(queue.offer(item(0, next++)));
+            assertEquals(expected++, sequenceOf(queue.poll()));
+            assertEquals(expected++, sequenceOf(queue.poll()));
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testOfferAllAcrossWrapStopsWhenFull() {
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(4);
+        assertTrue(queue.offer(item(0, 0)));
+        assertTrue(queue.offer(item(0, 1)));
+        queue.poll();
+        queue.poll();
+        assertTrue(queue.offer(item(0, 2)));
+
+        // Свободно 3 ячейки, две из них после конца массива
+        List<QueuedTask> batch = new ArrayList<>();
+        for (int i = 3; i < 8; i++) {
+            batch.add(item(0, i));
+        }
+        assertEquals(3, queue.offerAll(batch));
+        assertEquals(0, queue.offerAll(batch.subList(3, 5)));
+
+        for (int i = 2; i < 6; i++) {
+            assertEquals(i, sequenceOf(queue.poll()));
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testRemovedSlotIsSkipped() {
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(4);
+        QueuedTask first = item(0, 0);
+        QueuedTask second = item(0, 1);
+        queue.offer(first);
+        queue.offer(second);
+        queue.offer(item(0, 2));
+
+        assertTrue(queue.remove(second));
+        assertFalse(queue.remove(second));
+
+        assertSame(first, queue.poll());
+        assertEquals(2, sequenceOf(queue.poll()));
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testBlockingPollWakesOnOffer() throws InterruptedException {
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(4);
+        AtomicReference<QueuedTask> taken = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread owner = new Thread(() -> {
+            try {
+                taken.set(queue.poll(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        owner.start();
+        eventually(() -> owner.getState() == Thread.State.TIMED_WAITING, 1_000, "owner did not park");
+
+        QueuedTask task = item(0, 0);
+        queue.offer(task);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertSame(task, taken.get());
+    }
+
+    @Test
+    void testConcurrentOfferPollStealEvict() throws InterruptedException {
+        stress((queue, tasks) -> queue.offer(tasks.get(0)) ? 1 : 0, 1);
+    }
+
+    @Test
+    void testConcurrentOfferAllPollStealEvict() throws InterruptedException {
+        stress(RingBufferTaskQueue::offerAll, 8);
+    }
+
+    /**
+     * Several producers and one consumer per way of taking (owner poll, blocking poll, steal, evict)
+     * share a small queue, so it wraps thousands of times and is often full or empty. Every item
+     * must be taken exactly once, and each consumer must see each producer's items in order.
+     */
+    private static void stress(Offer offer, int batchSize) throws InterruptedException {
+        RingBufferTaskQueue queue = new RingBufferTaskQueue(8);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicIntegerArray taken = new AtomicIntegerArray(producers * perProducer);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                List<QueuedTask> batch = new ArrayList<>(batchSize);
+                for (int i = 0; i < perProducer; i++) {
+                    batch.add(item(producer, i));
+                    if (batch.size() == batchSize || i == perProducer - 1) {
+                        int offered = 0;
+                        while (offered < batch.size()) {
+                            int accepted = offer.offer(queue, batch.subList(offered, batch.size()));
+                            if (accepted == 0) {
+                                Thread.yield();
+                            }
+                            offered += accepted;
+                        }
+                        batch.clear();
+                    }
+                }
+            }));
+        }
+        List<Thread> consumers = List.of(
+                consumer(queue::poll, producers, perProducer, taken, producing, failure),
+                consumer(() -> {
+                    try {
+                        return queue.poll(1, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, producers, perProducer, taken, producing, failure),
+                consumer(queue::steal, producers, perProducer, taken, producing, failure),
+                consumer(queue::evict, producers, perProducer, taken, producing, failure));
+
+        threads.forEach(Thread::start);
+        consumers.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(30_000);
+        }
+        producing.set(false);
+        for (Thread consumer : consumers) {
+            consumer.join(30_000);
+        }
+
+        assertNull(failure.get(), () -> "consumer failed: " + failure.get());
+        assertExactlyOnce(taken);
+        assertEquals(0, queue.size());
+    }
+
+    private static Thread consumer(Take take, int producers, int perProducer, AtomicIntegerArray taken,
+                                   AtomicBoolean producing, AtomicReference<Throwable> failure) {
+        return new Thread(() -> {
+            int[] last = new int[producers];
+            Arrays.fill(last, -1);
+            while (true) {
+                boolean finished = !producing.get();
+                QueuedTask task = take.take();
+                if (task == null) {
+                    if (finished) {
+                        return;
+                    }
+                    Thread.yield();
+                    continue;
+                }
+                Item item = (Item) task.task;
+                if (item.sequence <= last[item.producer]) {
+                    failure.compareAndSet(null, new AssertionError(
+                            "producer " + item.producer + ": " + item.sequence + " after " + last[item.producer]));
+                }
+                last[item.producer] = item.sequence;
+                taken.incrementAndGet(item.producer * perProducer + item.sequence);
+            }
+        });
+    }
+
+    private static QueuedTask item(int producer, int sequence) {
+        return new QueuedTask(new Item(producer, sequence), 0);
+    }
+
+    private static int sequenceOf(QueuedTask task) {
+        return ((Item) task.task).sequence;
+    }
+
+    private interface Offer {
+        int offer(RingBufferTaskQueue queue, List<QueuedTask> tasks);
+    }
+
+    private interface Take {
+        QueuedTask take();
+    }
+
+    private record Item(int producer, int sequence) implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class ScheduleTest {
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testFixedRateKeepsItsScheduleWhenLate() throws InterruptedException {
+        // Пул остановлен, поэтому после одного запуска задача только вычисляет следующий срок и отменяется
+        MyCustomThreadPool pool = stoppedPool();
+        long firstDeadline = System.nanoTime() - 10 * PERIOD;
+        ScheduledTask<Object> task = new ScheduledTask<>(pool, () -> null, "rate", firstDeadline, PERIOD);
+
+        task.run();
+
+        // Опоздание на десять периодов не сдвигает расписание
+        assertEquals(firstDeadline + PERIOD, task.deadline);
+        assertTrue(task.isCancelled());
+    }
+
+    @Test
+    void testFixedDelayCountsFromEndOfRun() throws InterruptedException {
+        MyCustomThreadPool pool = stoppedPool();
+        long firstDeadline = System.nanoTime() - 10 * PERIOD;
+        AtomicLong runEnd = new AtomicLong();
+        ScheduledTask<Object> task = new ScheduledTask<>(pool, () -> {
+            Thread.sleep(5);
+            runEnd.set(System.nanoTime());
+            return null;
+        }, "delay", firstDeadline, -PERIOD);
+
+        task.run();
+        long afterRun = System.nanoTime();
+
+        assertTrue(task.deadline >= runEnd.get() + PERIOD);
+        assertTrue(task.deadline <= afterRun + PERIOD);
+        assertTrue(task.isCancelled());
+    }
+
+    @Test
+    void testFailedRunStopsPeriodicTaskAndIsCounted() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        AtomicInteger runs = new AtomicInteger();
+
+        ScheduledFuture<?> future = pool.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("expected by the test");
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        // Счетчик увеличен еще до того, как future завершился
+        assertEquals(1, pool.snapshot().failedTasks());
+        shutdown(pool);
+        assertEquals(1, runs.get());
+        assertEquals(0, pool.snapshot().completedTasks());
+    }
+
+    @Test
+    void testPeriodicTaskRepeatsUntilCancelled() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        CountDownLatch threeRuns = new CountDownLatch(3);
+
+        ScheduledFuture<?> future = pool.scheduleWithFixedDelay(threeRuns::countDown, 0, 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(threeRuns.await(1, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+        shutdown(pool);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void testShutdownNowReturnsAndCancelsScheduledTasks() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        ScheduledFuture<?> oneShot = pool.schedule(() -> { }, 1, TimeUnit.MINUTES);
+        ScheduledFuture<?> periodic = pool.scheduleAtFixedRate(() -> { }, 1, 1, TimeUnit.MINUTES);
+
+        List<Runnable> pending = pool.shutdownNow();
+
+        assertEquals(2, pending.size());
+        assertTrue(pending.containsAll(List.of((Runnable) oneShot, (Runnable) periodic)));
+        assertTrue(oneShot.isCancelled());
+        assertTrue(periodic.isCancelled());
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testShutdownCancelsScheduledTasksAndRejectsNewOnes() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        ScheduledFuture<?> waiting = pool.schedule(() -> { }, 1, TimeUnit.MINUTES);
+
+        shutdown(pool);
+
+        assertTrue(waiting.isCancelled());
+        TaskRejectedException error = assertThrows(TaskRejectedException.class,
+                () -> pool.schedule(() -> { }, 1, TimeUnit.MILLISECONDS));
+        assertTrue(error.isShutdown());
+    }
+
+    private static MyCustomThreadPool stoppedPool() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        shutdown(pool);
+        return pool;
+    }
+}
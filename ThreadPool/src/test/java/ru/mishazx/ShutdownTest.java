@@ -0,0 +1,272 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class ShutdownTest {
+
+    @Test
+    void testExitingWorkerHandsOffItsQueue() throws InterruptedException {
+        // Так поток уходит и при сокращении пула: его останавливают, и он выходит после текущей задачи
+        TwoWorkers pool = new TwoWorkers(1_000);
+        int tasks = 500;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        AtomicBoolean ranOnExitingWorker = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.executeOn(1, () -> {
+                if (Thread.currentThread().getName().equals(pool.exitingName)) {
+                    ranOnExitingWorker.set(true);
+                }
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        pool.exiting.stop();
+        pool.releaseExiting.countDown();
+        pool.releaseSurvivor.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertExactlyOnce(runs);
+        assertFalse(ranOnExitingWorker.get());
+        shutdown(pool.pool);
+    }
+
+    @Test
+    void testExitingWorkerRunsTasksThatFindNoRoom() throws InterruptedException {
+        // Очередь оставшегося потока заполнена, поэтому уходящий поток выполняет свои задачи сам
+        TwoWorkers pool = new TwoWorkers(4);
+        int tasks = 8;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.executeOn(i % 2, () -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        pool.exiting.stop();
+        pool.releaseExiting.countDown();
+        eventually(() -> pool.pool.snapshot().poolSize() == 1, 1_000, "worker did not exit");
+        pool.releaseSurvivor.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertExactlyOnce(runs);
+        shutdown(pool.pool);
+    }
+
+    @Test
+    void testWorkerKilledByErrorHandsOffItsQueue() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.MINUTES, 1_000, 0);
+        pool.setWorkStealingEnabled(false);
+        pool.setQueueSelector(workers -> 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+            throw new Error("expected by the test");
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        int tasks = 500;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.execute(() -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertExactlyOnce(runs);
+        shutdown(pool);
+    }
+
+    @Test
+    void testShutdownRunsQueuedTasksBeforeTerminating() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1_000, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        blockWorkers(pool, 2, release);
+        int tasks = 200;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.execute(() -> runs.incrementAndGet(index));
+        }
+
+        pool.shutdown();
+        AtomicBoolean late = new AtomicBoolean();
+        pool.execute(() -> late.set(true));
+        assertFalse(pool.awaitTermination(50, TimeUnit.MILLISECONDS));
+        assertFalse(pool.isTerminated());
+        release.countDown();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(pool.isTerminated());
+        assertExactlyOnce(runs);
+        assertFalse(late.get());
+        assertEquals(0, pool.snapshot().poolSize());
+    }
+
+    @Test
+    void testPoolTerminatesOnlyAfterRetiredWorkerExits() throws InterruptedException {
+        // Убранный из пула поток задерживается в onWorkerRetired, то есть еще не завершился
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 2, 1, TimeUnit.MINUTES, 100, 0);
+        CountDownLatch retiring = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        pool.setListener(new PoolListener() {
+            @Override
+            public void onWorkerRetired(String workerName, int poolSize) {
+                if (first.compareAndSet(true, false)) {
+                    retiring.countDown();
+                    await(release);
+                }
+            }
+        });
+        CountDownLatch ran = new CountDownLatch(1);
+        pool.execute(ran::countDown);
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+        pool.growBy(1);
+        eventually(() -> {
+            pool.retireIdleWorker();
+            return pool.snapshot().poolSize() == 1;
+        }, 1_000, "no worker retired");
+        assertTrue(retiring.await(1, TimeUnit.SECONDS));
+
+        pool.shutdown();
+        assertFalse(pool.awaitTermination(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, pool.snapshot().workersRetired());
+        assertEquals(1, pool.snapshot().completedTasks());
+    }
+
+    @Test
+    void testShutdownNowReturnsTasksThatNeverStarted() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1_000, 0);
+        // Блокирующие задачи завершаются по прерыванию от shutdownNow
+        blockWorkers(pool, 2, new CountDownLatch(1));
+        int tasks = 300;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        Set<Runnable> submitted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            Runnable task = () -> runs.incrementAndGet(index);
+            submitted.add(task);
+            pool.execute(task);
+        }
+
+        List<Runnable> pending = pool.shutdownNow();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(tasks, pending.size());
+        assertEquals(submitted, identitySet(pending));
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(0, runs.get(i), "task " + i);
+        }
+    }
+
+    @Test
+    void testShutdownNowSplitsTasksIntoRunAndReturned() throws InterruptedException {
+        // Часть задач успевает выполниться; каждая либо выполнена один раз, либо возвращена, но не то и другое
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10_000, 0);
+        int tasks = 5_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        Runnable[] submitted = new Runnable[tasks];
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            submitted[i] = () -> runs.incrementAndGet(index);
+            pool.execute(submitted[i]);
+        }
+
+        List<Runnable> pending = pool.shutdownNow();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        Set<Runnable> returned = identitySet(pending);
+        assertEquals(pending.size(), returned.size());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(returned.contains(submitted[i]) ? 0 : 1, runs.get(i), "task " + i);
+        }
+    }
+
+    private static Set<Runnable> identitySet(List<Runnable> tasks) {
+        Set<Runnable> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(tasks);
+        return set;
+    }
+
+    private static void blockWorkers(MyCustomThreadPool pool, int workers, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Two workers, each blocked by its own task, with stealing off and the queue chosen by the
+     * test. Worker 1 is the one that exits; worker 0 survives.
+     */
+    private static final class TwoWorkers {
+        final MyCustomThreadPool pool;
+        final CountDownLatch releaseSurvivor = new CountDownLatch(1);
+        final CountDownLatch releaseExiting = new CountDownLatch(1);
+        private final AtomicReference<Worker[]> seen = new AtomicReference<>();
+        private volatile int target;
+        final Worker exiting;
+        final String exitingName;
+
+        TwoWorkers(int queueCapacity) throws InterruptedException {
+            pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.MINUTES, queueCapacity, 0);
+            pool.setWorkStealingEnabled(false);
+            pool.setRejectionPolicy(new AbortPolicy());
+            pool.setQueueSelector(workers -> {
+                seen.set(workers);
+                return Math.min(target, workers.length - 1);
+            });
+            CountDownLatch started = new CountDownLatch(2);
+            executeOn(0, () -> {
+                started.countDown();
+                await(releaseSurvivor);
+            });
+            executeOn(1, () -> {
+                started.countDown();
+                await(releaseExiting);
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            exiting = seen.get()[1];
+            exitingName = exiting.getName();
+        }
+
+        void executeOn(int worker, Runnable task) {
+            target = worker;
+            pool.execute(task);
+        }
+    }
+}
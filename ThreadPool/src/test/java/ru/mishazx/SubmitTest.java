@@ -0,0 +1,87 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class SubmitTest {
+
+    @Test
+    void testSubmitReturnsResult() throws Exception {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+
+        CompletableFuture<Integer> future = pool.submit(() -> 42);
+
+        assertEquals(42, future.get(1, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertEquals(1, pool.snapshot().completedTasks());
+        assertEquals(0, pool.snapshot().failedTasks());
+    }
+
+    @Test
+    void testFailedSubmitIsCountedBeforeFutureCompletes() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+
+        CompletableFuture<Integer> future = pool.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        // Счетчик увеличен еще до того, как future завершился
+        assertEquals(1, pool.snapshot().failedTasks());
+
+        shutdown(pool);
+        PoolStats stats = pool.snapshot();
+        assertEquals(1, stats.failedTasks());
+        assertEquals(0, stats.completedTasks());
+    }
+
+    @Test
+    void testFailedExecuteIsCounted() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        CountDownLatch done = new CountDownLatch(1);
+
+        pool.execute(() -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        pool.execute(done::countDown);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        shutdown(pool);
+        PoolStats stats = pool.snapshot();
+        assertEquals(1, stats.failedTasks());
+        assertEquals(1, stats.completedTasks());
+    }
+
+    @Test
+    void testCancelRemovesQueuedTask() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CompletableFuture<Boolean> future = pool.submit(() -> {
+            ran.set(true);
+            return true;
+        });
+        assertTrue(future.cancel(false));
+
+        release.countDown();
+        shutdown(pool);
+        assertFalse(ran.get());
+        assertEquals(1, pool.snapshot().cancelledTasks());
+    }
+}
@@ -0,0 +1,159 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The wheel is driven through {@link TimingWheel#advanceTo} on a made-up clock, so no test
+ * depends on how fast the timer thread runs.
+ */
+class TimingWheelTest {
+    private static final long START = 1_000_000_000L;
+    private static final long TICK = TimingWheel.TICK_NANOS;
+    private static final int WHEEL_SIZE = TimingWheel.WHEEL_SIZE;
+
+    private final MyCustomThreadPool pool = new MyCustomThreadPool(1, 1, 1, TimeUnit.SECONDS, 10, 0);
+    private final List<ScheduledTask<?>> dispatched = new ArrayList<>();
+    private final TimingWheel wheel = new TimingWheel(dispatched::add, START);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testDoesNotFireBeforeDeadline() {
+        ScheduledTask<?> onTickEdge = task(START + 5 * TICK);
+        ScheduledTask<?> insideTick = task(START + 5 * TICK + TICK / 2);
+        wheel.add(onTickEdge);
+        wheel.add(insideTick);
+
+        wheel.advanceTo(START + 5 * TICK + TICK / 2);
+        assertTrue(dispatched.isEmpty());
+
+        // Задача уходит в конце тика, в который попадает ее срок, а не в его начале
+        wheel.advanceTo(START + 6 * TICK);
+        assertEquals(List.of(onTickEdge, insideTick), dispatched);
+    }
+
+    @Test
+    void testOverdueTaskFiresOnNextTick() {
+        wheel.advanceTo(START + 10 * TICK);
+        ScheduledTask<?> overdue = task(START + 2 * TICK);
+        wheel.add(overdue);
+
+        wheel.advanceTo(START + 11 * TICK - 1);
+        assertTrue(dispatched.isEmpty());
+        wheel.advanceTo(START + 11 * TICK);
+        assertEquals(List.of(overdue), dispatched);
+    }
+
+    @Test
+    void testFiresInDeadlineOrderAcrossTicks() {
+        ScheduledTask<?> third = task(START + 3 * TICK);
+        ScheduledTask<?> first = task(START + TICK);
+        ScheduledTask<?> second = task(START + 2 * TICK);
+        wheel.add(third);
+        wheel.add(first);
+        wheel.add(second);
+
+        List<List<ScheduledTask<?>>> byTick = new ArrayList<>();
+        for (int tick = 1; tick <= 4; tick++) {
+            wheel.advanceTo(START + tick * TICK);
+            byTick.add(List.copyOf(dispatched));
+            dispatched.clear();
+        }
+
+        assertEquals(List.of(List.of(), List.of(first), List.of(second), List.of(third)), byTick);
+    }
+
+    @Test
+    void testTaskBeyondOneRevolutionWaitsForItsRound() {
+        // Все три задачи попадают в одну корзину, но ждут разное число оборотов
+        ScheduledTask<?> thisRound = task(START + 3 * TICK);
+        ScheduledTask<?> nextRound = task(START + (WHEEL_SIZE + 3) * TICK);
+        ScheduledTask<?> twoRoundsLater = task(START + (2 * WHEEL_SIZE + 3) * TICK);
+        wheel.add(twoRoundsLater);
+        wheel.add(nextRound);
+        wheel.add(thisRound);
+
+        wheel.advanceTo(START + 4 * TICK);
+        assertEquals(List.of(thisRound), dispatched);
+
+        wheel.advanceTo(START + (WHEEL_SIZE + 4) * TICK - 1);
+        assertEquals(List.of(thisRound), dispatched);
+        wheel.advanceTo(START + (WHEEL_SIZE + 4) * TICK);
+        assertEquals(List.of(thisRound, nextRound), dispatched);
+
+        wheel.advanceTo(START + (2 * WHEEL_SIZE + 4) * TICK - 1);
+        assertEquals(2, dispatched.size());
+        wheel.advanceTo(START + (2 * WHEEL_SIZE + 4) * TICK);
+        assertEquals(List.of(thisRound, nextRound, twoRoundsLater), dispatched);
+    }
+
+    @Test
+    void testCancelledTaskIsRemovedBeforeItFires() {
+        ScheduledTask<?> cancelled = task(START + 5 * TICK);
+        ScheduledTask<?> kept = task(START + 5 * TICK);
+        wheel.add(cancelled);
+        wheel.add(kept);
+        wheel.advanceTo(START + TICK);
+        assertNotNull(cancelled.bucket);
+
+        assertTrue(cancelled.cancel(false));
+        wheel.cancel(cancelled);
+        wheel.advanceTo(START + 2 * TICK);
+
+        assertNull(cancelled.bucket);
+        wheel.advanceTo(START + 10 * TICK);
+        assertEquals(List.of(kept), dispatched);
+    }
+
+    @Test
+    void testCancelledBeforeTransferIsNeverQueued() {
+        ScheduledTask<?> task = task(START + 5 * TICK);
+        wheel.add(task);
+        task.cancel(false);
+
+        wheel.advanceTo(START + 10 * TICK);
+
+        assertNull(task.bucket);
+        assertTrue(dispatched.isEmpty());
+    }
+
+    @Test
+    void testStopCancelsAndReturnsPendingTasks() {
+        ScheduledTask<?> due = task(START + TICK);
+        ScheduledTask<?> inWheel = task(START + 100 * TICK);
+        ScheduledTask<?> notTransferred = task(START + 200 * TICK);
+        wheel.add(due);
+        wheel.add(inWheel);
+        wheel.advanceTo(START + 2 * TICK);
+        wheel.add(notTransferred);
+
+        List<Runnable> pending = new ArrayList<>();
+        wheel.stop(pending);
+
+        assertEquals(List.of(due), dispatched);
+        assertEquals(2, pending.size());
+        assertTrue(pending.containsAll(List.of(inWheel, notTransferred)));
+        assertTrue(inWheel.isCancelled());
+        assertTrue(notTransferred.isCancelled());
+        assertFalse(due.isCancelled());
+
+        // После остановки новые задачи сразу отменяются
+        ScheduledTask<?> late = task(START + 300 * TICK);
+        wheel.add(late);
+        assertTrue(late.isCancelled());
+    }
+
+    private ScheduledTask<Object> task(long deadline) {
+        return new ScheduledTask<>(pool, () -> null, "task@" + (deadline - START) / TICK, deadline, 0);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class VirtualThreadPoolTest {
+
+    @Test
+    void testRunsTasksOnVirtualThreads() throws InterruptedException {
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(4, 10);
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        pool.execute(() -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            done.countDown();
+        });
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(virtual.get());
+        shutdown(pool);
+    }
+
+    @Test
+    void testPermitsLimitConcurrency() throws InterruptedException {
+        // 3 разрешения: одновременно выполняются не больше трех задач, остальные ждут в очереди
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(3, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int tasks = 30;
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 3, "max running " + maxRunning.get());
+        shutdown(pool);
+        assertEquals(tasks, pool.snapshot().completedTasks());
+    }
+
+    @Test
+    void testRejectsWhenPermitsAndBacklogAreExhausted() throws InterruptedException {
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(2, 2);
+        pool.setRejectionPolicy(new AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                await(release);
+                executed.incrementAndGet();
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Разрешения заняты, две задачи помещаются в очередь, пятая отклоняется
+        pool.execute(executed::incrementAndGet);
+        pool.execute(executed::incrementAndGet);
+        assertThrows(TaskRejectedException.class, () -> pool.execute(executed::incrementAndGet));
+
+        PoolStats stats = pool.snapshot();
+        assertEquals(2, stats.poolSize());
+        assertEquals(2, stats.queuedTasks());
+        assertEquals(1, stats.rejectedTasks());
+
+        release.countDown();
+        shutdown(pool);
+        assertEquals(4, executed.get());
+    }
+
+    @Test
+    void testShutdownDrainsBacklog() throws InterruptedException {
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        pool.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            pool.execute(executed::incrementAndGet);
+        }
+
+        pool.shutdown();
+        assertFalse(pool.isTerminated());
+        release.countDown();
+
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(5, executed.get());
+    }
+
+    @Test
+    void testShutdownNowReturnsBacklogAndInterruptsRunningTasks() throws InterruptedException {
+        MyCustomThreadPool pool = MyCustomThreadPool.newVirtualThreadPool(1, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        pool.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            pool.execute(() -> { });
+        }
+
+        List<Runnable> pending = pool.shutdownNow();
+
+        assertEquals(3, pending.size());
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.mishazx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.mishazx.PoolTestSupport.*;
+
+class WorkStealingTest {
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void testIdleWorkerStealsFromBlockedOwner(QueueType queueType) throws InterruptedException {
+        // Все задачи попадают в очередь первого потока, который занят блокирующей задачей
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 1_000, 0, queueType);
+        pool.setQueueSelector(workers -> 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ownerBlocked = new CountDownLatch(1);
+        pool.execute(() -> {
+            ownerBlocked.countDown();
+            await(release);
+        });
+        assertTrue(ownerBlocked.await(1, TimeUnit.SECONDS));
+
+        int tasks = 500;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.execute(() -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        // Владелец очереди все еще заблокирован, значит все задачи выполнил второй поток
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertExactlyOnce(runs);
+        shutdown(pool);
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueueType.class)
+    void testStolenTasksRunExactlyOnce(QueueType queueType) throws InterruptedException {
+        // Один производитель наполняет одну очередь, три потока воруют из нее одновременно с владельцем
+        MyCustomThreadPool pool = new MyCustomThreadPool(4, 4, 1, TimeUnit.SECONDS, 64, 0, queueType);
+        pool.setQueueSelector(workers -> 0);
+        pool.setRejectionPolicy(new BlockingPolicy(10, TimeUnit.SECONDS));
+
+        int tasks = 100_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            pool.execute(() -> {
+                runs.incrementAndGet(index);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        shutdown(pool);
+        assertExactlyOnce(runs);
+        assertEquals(tasks, pool.snapshot().completedTasks());
+    }
+
+    @Test
+    void testNoStealingWhenDisabled() throws InterruptedException {
+        MyCustomThreadPool pool = new MyCustomThreadPool(2, 2, 1, TimeUnit.SECONDS, 100, 0);
+        pool.setWorkStealingEnabled(false);
+        pool.setQueueSelector(workers -> 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ownerBlocked = new CountDownLatch(1);
+        pool.execute(() -> {
+            ownerBlocked.countDown();
+            await(release);
+        });
+        assertTrue(ownerBlocked.await(1, TimeUnit.SECONDS));
+
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(done::countDown);
+
+        // Без воровства задача ждет, пока освободится владелец очереди
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        shutdown(pool);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.MyCustomThreadPool;
+import ru.mishazx.QueueType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out job: submits a batch of no-op tasks either one by one through {@code execute} or in one
+ * call to {@code executeAll}, then waits until the workers have run it, so that the queues never
+ * fill up. The tasks do no work, so the score per task is dominated by submission and hand-off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(BatchSubmitBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSubmitBenchmark {
+    static final int BATCH_SIZE = 1_000;
+    private static final int WORKERS = 4;
+
+    @Param({"FIFO", "RING_BUFFER"})
+    public QueueType queueType;
+
+    private MyCustomThreadPool pool;
+    private final LongAdder executed = new LongAdder();
+    private final List<Runnable> batch = new ArrayList<>(BATCH_SIZE);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, BATCH_SIZE, 0, queueType);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(executed::increment);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void execute() {
+        long target = executed.sum() + BATCH_SIZE;
+        for (Runnable task : batch) {
+            pool.execute(task);
+        }
+        awaitExecuted(target);
+    }
+
+    @Benchmark
+    public void executeAll() {
+        long target = executed.sum() + BATCH_SIZE;
+        pool.executeAll(batch);
+        awaitExecuted(target);
+    }
+
+    private void awaitExecuted(long target) {
+        while (executed.sum() < target) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.IdleStrategy;
+import ru.mishazx.MyCustomThreadPool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wake-up latency of an idle worker under each idle strategy. Before every invocation the
+ * producer pauses so that the workers go idle; the sampled time runs from submitting a no-op task
+ * until it has finished. The worker CPU time and the wall time of the measured iterations are
+ * reported as the counters {@code workerCpuUs} and {@code elapsedUs}; their ratio is the share of
+ * one core that the workers burn while mostly idle.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdleStrategyBenchmark {
+    private static final int WORKERS = 2;
+    private static final long PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"BLOCKING", "BUSY_SPIN", "SPIN_YIELD", "SPIN_PARK"})
+    public IdleStrategy strategy;
+
+    private MyCustomThreadPool pool;
+    private final LongAdder executed = new LongAdder();
+    private Runnable task;
+    private List<Thread> workers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, 16, 0);
+        pool.setIdleStrategy(strategy);
+        task = executed::increment;
+        // The first task starts the workers
+        pool.execute(task);
+        awaitExecuted(1);
+        workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("Worker-"))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Setup(Level.Invocation)
+    public void pause() {
+        LockSupport.parkNanos(PAUSE_NANOS);
+    }
+
+    @Benchmark
+    public void wakeUp(WorkerCpu cpu) {
+        long target = executed.sum() + 1;
+        pool.execute(task);
+        awaitExecuted(target);
+    }
+
+    private void awaitExecuted(long target) {
+        while (executed.sum() < target) {
+            Thread.yield();
+        }
+    }
+
+    long workerCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread worker : workers) {
+            total += Math.max(0, threads.getThreadCpuTime(worker.threadId()));
+        }
+        return total;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WorkerCpu {
+        public long workerCpuUs;
+        public long elapsedUs;
+        private long cpuStart;
+        private long wallStart;
+
+        @Setup(Level.Iteration)
+        public void start(IdleStrategyBenchmark benchmark) {
+            cpuStart = benchmark.workerCpuNanos();
+            wallStart = System.nanoTime();
+        }
+
+        // Assigned per iteration; JMH adds the values of the measured iterations up
+        @TearDown(Level.Iteration)
+        public void stop(IdleStrategyBenchmark benchmark) {
+            workerCpuUs = (benchmark.workerCpuNanos() - cpuStart) / 1_000;
+            elapsedUs = (System.nanoTime() - wallStart) / 1_000;
+        }
+    }
+}
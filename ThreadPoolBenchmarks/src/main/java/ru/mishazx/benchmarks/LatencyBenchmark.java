@@ -0,0 +1,53 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of a single task: from {@code execute} until the task body has finished,
+ * as seen by the submitting thread. Sample mode reports the p50/p90/p99/p99.9 distribution.
+ * Run with several JMH threads ({@code -t 4}) to see how latency holds up as producers contend.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyBenchmark {
+    private static final int QUEUE_CAPACITY = 4_096;
+
+    @Param({"CUSTOM", "CUSTOM_RING_BUFFER", "THREAD_POOL_EXECUTOR", "FORK_JOIN_POOL"})
+    public PoolKind pool;
+
+    @Param({"CPU", "BLOCKING", "MIXED"})
+    public Workload workload;
+
+    @Param({"4", "16"})
+    public int workers;
+
+    private PoolKind.Pool instance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = pool.create(workers, QUEUE_CAPACITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        instance.close();
+    }
+
+    @Benchmark
+    public void roundTrip() throws InterruptedException {
+        Workload work = workload;
+        CountDownLatch done = new CountDownLatch(1);
+        instance.executor().execute(() -> {
+            work.run();
+            done.countDown();
+        });
+        done.await();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.Observable;
+import ru.mishazx.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merged items per millisecond when {@code flatMap} fans out to {@code SOURCES} inner observables,
+ * each subscribed on the computation scheduler. A {@code maxConcurrency} of 0 stands for unbounded.
+ * Completion alone ends an invocation, since flatMap completes only after every inner has.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObservableFlatMapBenchmark {
+    private static final int SOURCES = 1_000;
+    private static final int ITEMS_PER_SOURCE = 100;
+
+    @Param({"0", "4", "64"})
+    public int maxConcurrency;
+
+    private Observable<Integer> merged;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Observable<Integer> outer = Observable.create(emitter -> {
+            for (int i = 0; i < SOURCES && !emitter.isDisposed(); i++) {
+                emitter.onNext(i);
+            }
+            emitter.onComplete();
+        });
+        Observable<Integer> inner = Observable.<Integer>create(emitter -> {
+            for (int i = 0; i < ITEMS_PER_SOURCE; i++) {
+                emitter.onNext(i);
+            }
+            emitter.onComplete();
+        }).subscribeOn(Schedulers.computation());
+        merged = maxConcurrency == 0
+                ? outer.flatMap(i -> inner)
+                : outer.flatMap(i -> inner, maxConcurrency);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SOURCES * ITEMS_PER_SOURCE)
+    public void merge() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        merged.subscribe(item -> { }, error -> done.countDown(), done::countDown);
+        done.await();
+    }
+}
@@ -0,0 +1,176 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.mishazx.Disposable;
+import ru.mishazx.Observable;
+import ru.mishazx.Observer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cost per item of a synchronous map/filter pipeline. {@code fused} uses the operators as they
+ * are; {@code unfused} is the baseline without fusion: one plain wrapping observer per stage,
+ * each forwarding to the next, subscribed to the same source. Both subscribe once, so both pay
+ * for one emitter and one safe observer, and the difference is the per-stage hop. Stages
+ * alternate map and filter, and every filter lets all items through so that each item crosses
+ * the whole chain.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObservableFusionBenchmark {
+    private static final int ITEMS = 1_000;
+
+    @Param({"1", "5", "10", "20"})
+    public int stages;
+
+    private static final Function<Integer, Integer> INCREMENT = n -> n + 1;
+    private static final Predicate<Integer> KEEP = n -> n >= 0;
+
+    private Observable<Integer> source;
+    private Observable<Integer> fused;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = Observable.create(observer -> {
+            for (int i = 0; i < ITEMS; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+        fused = source;
+        for (int i = 0; i < stages; i++) {
+            fused = i % 2 == 0 ? fused.map(INCREMENT) : fused.filter(KEEP);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void fused(Blackhole blackhole) {
+        fused.subscribe(blackhole::consume, blackhole::consume, () -> { });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void unfused(Blackhole blackhole) {
+        Observer<Integer> chain = new BlackholeObserver(blackhole);
+        for (int i = stages - 1; i >= 0; i--) {
+            chain = i % 2 == 0 ? new MapObserver<>(chain, INCREMENT) : new FilterObserver<>(chain, KEEP);
+        }
+        source.subscribe(chain);
+    }
+
+    private static final class BlackholeObserver implements Observer<Integer> {
+        private final Blackhole blackhole;
+
+        BlackholeObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            blackhole.consume(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            blackhole.consume(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Stops forwarding after a terminal signal, as the fused observer does, so both do the same
+     * work per item apart from the extra hop.
+     */
+    private abstract static class StageObserver<T, R> implements Observer<T> {
+        final Observer<R> downstream;
+        boolean done;
+
+        StageObserver(Observer<R> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            downstream.onSubscribe(d);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+    }
+
+    private static final class MapObserver<T, R> extends StageObserver<T, R> {
+        private final Function<T, R> mapper;
+
+        MapObserver(Observer<R> downstream, Function<T, R> mapper) {
+            super(downstream);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            R value;
+            try {
+                value = mapper.apply(item);
+            } catch (Exception e) {
+                onError(e);
+                return;
+            }
+            downstream.onNext(value);
+        }
+    }
+
+    private static final class FilterObserver<T> extends StageObserver<T, T> {
+        private final Predicate<T> predicate;
+
+        FilterObserver(Observer<T> downstream, Predicate<T> predicate) {
+            super(downstream);
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            boolean keep;
+            try {
+                keep = predicate.test(item);
+            } catch (Exception e) {
+                onError(e);
+                return;
+            }
+            if (keep) {
+                downstream.onNext(item);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.Observable;
+import ru.mishazx.Scheduler;
+import ru.mishazx.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Items per millisecond through {@code observeOn} on a high-rate synchronous stream.
+ * {@code queueDrain} uses the operator as it is; {@code perItemTask} submits one scheduler task
+ * per signal, as observeOn did before. The latch counts every item as well as completion, because
+ * per-item tasks on a multi-threaded scheduler may complete before the last items arrive.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObserveOnBenchmark {
+    private static final int ITEMS = 10_000;
+
+    @Param({"single", "computation"})
+    public String scheduler;
+
+    private Scheduler target;
+    private Observable<Integer> source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = scheduler.equals("single") ? Schedulers.single() : Schedulers.computation();
+        source = Observable.create(observer -> {
+            for (int i = 0; i < ITEMS; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void queueDrain() throws InterruptedException {
+        await(source.observeOn(target));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void perItemTask() throws InterruptedException {
+        Observable<Integer> perItem = Observable.create(observer -> source.subscribe(
+                item -> target.execute(() -> observer.onNext(item)),
+                error -> target.execute(() -> observer.onError(error)),
+                () -> target.execute(observer::onComplete)
+        ));
+        await(perItem);
+    }
+
+    private static void await(Observable<Integer> observable) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(ITEMS + 1);
+        observable.subscribe(item -> done.countDown(), error -> { }, done::countDown);
+        done.await();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.mishazx.benchmarks;
+
+import ru.mishazx.AbortPolicy;
+import ru.mishazx.MyCustomThreadPool;
+import ru.mishazx.QueueType;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executors under comparison, each sized to a fixed number of workers so that only the
+ * queueing and hand-off machinery differs.
+ */
+public enum PoolKind {
+    CUSTOM {
+        @Override
+        Pool create(int workers, int queueCapacity) {
+            return custom(workers, queueCapacity, QueueType.FIFO);
+        }
+    },
+    CUSTOM_RING_BUFFER {
+        @Override
+        Pool create(int workers, int queueCapacity) {
+            return custom(workers, queueCapacity, QueueType.RING_BUFFER);
+        }
+    },
+    THREAD_POOL_EXECUTOR {
+        @Override
+        Pool create(int workers, int queueCapacity) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity));
+            return Pool.of(pool);
+        }
+    },
+    FORK_JOIN_POOL {
+        @Override
+        Pool create(int workers, int queueCapacity) {
+            return Pool.of(new ForkJoinPool(workers));
+        }
+    };
+
+    abstract Pool create(int workers, int queueCapacity);
+
+    private static Pool custom(int workers, int queueCapacity, QueueType queueType) {
+        // Capacity is per worker queue in the custom pool
+        MyCustomThreadPool pool = new MyCustomThreadPool(
+                workers, workers, 60, TimeUnit.SECONDS, Math.max(1, queueCapacity / workers), 0, queueType);
+        // Same as the JDK executors, so that a saturated pool fails the run instead of dropping tasks
+        pool.setRejectionPolicy(new AbortPolicy());
+        return new Pool(pool::execute, () -> {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        });
+    }
+
+    record Pool(Executor executor, Closer closer) {
+        static Pool of(ExecutorService service) {
+            return new Pool(service, () -> {
+                service.shutdown();
+                service.awaitTermination(10, TimeUnit.SECONDS);
+            });
+        }
+
+        void close() throws InterruptedException {
+            closer.close();
+        }
+    }
+
+    @FunctionalInterface
+    interface Closer {
+        void close() throws InterruptedException;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.MyCustomThreadPool;
+import ru.mishazx.QueueType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memory allocated per task on the submit/run path, per queue type. One producer submits a batch
+ * of the same preallocated no-op task and waits until the workers have run it, so the queues never
+ * fill up and no rejection path is taken. Run with {@code -prof gc}: {@code gc.alloc.rate.norm}
+ * is then the number of bytes per task.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(QueueAllocationBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueueAllocationBenchmark {
+    static final int BATCH_SIZE = 1_000;
+    private static final int WORKERS = 2;
+
+    @Param({"FIFO", "PRIORITY", "RING_BUFFER"})
+    public QueueType queueType;
+
+    private MyCustomThreadPool pool;
+    private final LongAdder executed = new LongAdder();
+    private Runnable task;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, BATCH_SIZE, 0, queueType);
+        task = executed::increment;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void executeBatch() {
+        long target = executed.sum() + BATCH_SIZE;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            pool.execute(task);
+        }
+        while (executed.sum() < target) {
+            Thread.yield();
+        }
+    }
+}
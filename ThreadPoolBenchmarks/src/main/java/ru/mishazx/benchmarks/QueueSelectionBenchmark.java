@@ -0,0 +1,104 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.AbortPolicy;
+import ru.mishazx.LeastLoadedQueueSelector;
+import ru.mishazx.MyCustomThreadPool;
+import ru.mishazx.PowerOfTwoChoicesQueueSelector;
+import ru.mishazx.QueueSelector;
+import ru.mishazx.RoundRobinQueueSelector;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queue wait under each selector. A background thread submits tasks with uneven durations at a
+ * steady rate, open loop; the benchmark thread submits a no-op probe and waits for it, so sample
+ * mode reports the distribution of the time a task spends behind the ones its selector put ahead
+ * of it. Work stealing is off, so the numbers only reflect where each policy places tasks.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueueSelectionBenchmark {
+    private static final int WORKERS = 4;
+    private static final int QUEUE_CAPACITY = 1_000;
+    private static final long ARRIVAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SHORT_TASK_MS = 1;
+    private static final int LONG_TASK_MS = 15;
+    private static final double LONG_TASK_SHARE = 0.1;
+
+    @Param({"ROUND_ROBIN", "LEAST_LOADED", "POWER_OF_TWO_CHOICES"})
+    public String selector;
+
+    private MyCustomThreadPool pool;
+    private Thread generator;
+    private volatile boolean generating;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, QUEUE_CAPACITY, 0);
+        pool.setRejectionPolicy(new AbortPolicy());
+        pool.setWorkStealingEnabled(false);
+        pool.setQueueSelector(newSelector(selector));
+        generating = true;
+        generator = new Thread(this::generateLoad, "LoadGenerator");
+        generator.setDaemon(true);
+        generator.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        generating = false;
+        generator.join();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void probe() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(done::countDown);
+        done.await();
+    }
+
+    private void generateLoad() {
+        Random random = new Random(42);
+        long nextArrival = System.nanoTime();
+        while (generating) {
+            while (System.nanoTime() < nextArrival) {
+                LockSupport.parkNanos(nextArrival - System.nanoTime());
+            }
+            nextArrival += ARRIVAL_INTERVAL_NANOS;
+            int durationMs = random.nextDouble() < LONG_TASK_SHARE ? LONG_TASK_MS : SHORT_TASK_MS;
+            try {
+                pool.execute(() -> sleep(durationMs));
+            } catch (RejectedExecutionException e) {
+                // Only possible if the pool falls far behind; the probe latency already shows it
+            }
+        }
+    }
+
+    private static QueueSelector newSelector(String name) {
+        return switch (name) {
+            case "ROUND_ROBIN" -> new RoundRobinQueueSelector();
+            case "LEAST_LOADED" -> new LeastLoadedQueueSelector();
+            case "POWER_OF_TWO_CHOICES" -> new PowerOfTwoChoicesQueueSelector();
+            default -> throw new IllegalArgumentException("Unknown selector: " + name);
+        };
+    }
+
+    private static void sleep(int ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
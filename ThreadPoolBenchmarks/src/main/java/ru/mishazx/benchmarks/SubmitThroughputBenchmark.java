@@ -0,0 +1,50 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.BlockingPolicy;
+import ru.mishazx.MyCustomThreadPool;
+import ru.mishazx.QueueType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of {@code execute} alone: producers submit a shared no-op task without waiting for it.
+ * Run with several JMH threads ({@code -t 1,2,4,8,16,32}) to see how submission scales with the
+ * number of producers. The queues are large so that the score is the submit path, not the workers;
+ * should producers still fill them, {@link BlockingPolicy} holds them back instead of rejecting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubmitThroughputBenchmark {
+    private static final int WORKERS = 4;
+    private static final int QUEUE_CAPACITY = 1 << 20;
+
+    @Param({"FIFO", "RING_BUFFER"})
+    public QueueType queueType;
+
+    private MyCustomThreadPool pool;
+    private final LongAdder executed = new LongAdder();
+    private final Runnable task = executed::increment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, QUEUE_CAPACITY, 0, queueType);
+        pool.setRejectionPolicy(new BlockingPolicy(1, TimeUnit.MINUTES));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public void execute() {
+        pool.execute(task);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasks per second: every invocation submits a batch and waits until the whole batch has run,
+ * so the score covers submission, hand-off to a worker and execution. Producer scaling is
+ * measured by running with several JMH threads ({@code -t 1,4,8}), which share one pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ThroughputBenchmark.BATCH)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThroughputBenchmark {
+    static final int BATCH = 1_000;
+    // Enough for every producer to have a full batch in flight
+    private static final int QUEUE_CAPACITY = 64 * BATCH;
+
+    @Param({"CUSTOM", "CUSTOM_RING_BUFFER", "THREAD_POOL_EXECUTOR", "FORK_JOIN_POOL"})
+    public PoolKind pool;
+
+    @Param({"CPU", "BLOCKING", "MIXED"})
+    public Workload workload;
+
+    @Param({"4", "16"})
+    public int workers;
+
+    private PoolKind.Pool instance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instance = pool.create(workers, QUEUE_CAPACITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        instance.close();
+    }
+
+    @Benchmark
+    public void submitBatch() throws InterruptedException {
+        Executor executor = instance.executor();
+        Workload work = workload;
+        CountDownLatch done = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            executor.execute(() -> {
+                work.run();
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
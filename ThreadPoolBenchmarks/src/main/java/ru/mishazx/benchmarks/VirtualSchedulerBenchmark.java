@@ -0,0 +1,82 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.Observable;
+import ru.mishazx.Scheduler;
+import ru.mishazx.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriptions per second when {@code SUBSCRIPTIONS} subscriptions block at once on
+ * {@code subscribeOn}, as with a call to a slow service. {@code io} starts a platform thread for
+ * each of them, {@code virtual} a virtual thread. The {@link PlatformThreads} counters give the
+ * live platform threads once a batch is submitted; run with {@code -prof gc} for the heap
+ * allocated per subscription.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class VirtualSchedulerBenchmark {
+    private static final int SUBSCRIPTIONS = 10_000;
+    private static final long BLOCK_MILLIS = 20;
+
+    @Param({"io", "virtual"})
+    public String scheduler;
+
+    private Observable<Integer> blocking;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Scheduler target = scheduler.equals("io") ? Schedulers.io() : Schedulers.virtual();
+        blocking = Observable.<Integer>create(emitter -> {
+            try {
+                Thread.sleep(BLOCK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            emitter.onNext(1);
+            emitter.onComplete();
+        }).subscribeOn(target);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUBSCRIPTIONS)
+    public void concurrentBlockingSubscriptions(PlatformThreads platformThreads) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(SUBSCRIPTIONS);
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            blocking.subscribe(item -> { }, error -> done.countDown(), done::countDown);
+        }
+        platformThreads.sample();
+        done.await();
+    }
+
+    /**
+     * JMH adds event counters up over the measured iterations, so the mean number of live
+     * platform threads per batch is {@code platformThreads / batches}.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PlatformThreads {
+        public long platformThreads;
+        public long batches;
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            platformThreads = 0;
+            batches = 0;
+        }
+
+        void sample() {
+            platformThreads += threads.getThreadCount();
+            batches++;
+        }
+    }
+}
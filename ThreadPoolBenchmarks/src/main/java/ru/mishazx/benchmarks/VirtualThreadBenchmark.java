@@ -0,0 +1,60 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.MyCustomThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking workload: every task sleeps, as an I/O call would. Compares fixed platform workers with
+ * virtual threads limited by permits. Each operation submits a batch and waits for all of it, so
+ * the score is tasks per second through the whole batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(VirtualThreadBenchmark.TASKS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+    static final int TASKS = 10_000;
+    private static final int BLOCKING_MS = 20;
+
+    /** {@code PLATFORM_n}: n platform workers; {@code VIRTUAL_n}: virtual threads with n permits. */
+    @Param({"PLATFORM_100", "PLATFORM_500", "VIRTUAL_500", "VIRTUAL_10000"})
+    public String mode;
+
+    private MyCustomThreadPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int threads = Integer.parseInt(mode.substring(mode.indexOf('_') + 1));
+        pool = mode.startsWith("VIRTUAL")
+                ? MyCustomThreadPool.newVirtualThreadPool(threads, TASKS)
+                : new MyCustomThreadPool(threads, threads, 1, TimeUnit.SECONDS, TASKS, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void blockingBatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            pool.execute(() -> {
+                try {
+                    Thread.sleep(BLOCKING_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
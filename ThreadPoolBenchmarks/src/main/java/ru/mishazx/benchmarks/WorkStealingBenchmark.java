@@ -0,0 +1,69 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.mishazx.MyCustomThreadPool;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skewed workload: most tasks are short, a few are long. Round-robin distribution parks short tasks
+ * behind long ones, so the batch finishes late unless idle workers steal. Each operation submits
+ * one batch and waits for all of it; the score is the time until the last task finished.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkStealingBenchmark {
+    private static final int WORKERS = 4;
+    private static final int TASKS = 400;
+    private static final int SHORT_TASK_MS = 1;
+    private static final int LONG_TASK_MS = 50;
+    private static final double LONG_TASK_SHARE = 0.1;
+
+    @Param({"true", "false"})
+    public boolean stealing;
+
+    private MyCustomThreadPool pool;
+    private final int[] durationsMs = new int[TASKS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new MyCustomThreadPool(WORKERS, WORKERS, 1, TimeUnit.SECONDS, TASKS, 0);
+        pool.setWorkStealingEnabled(stealing);
+        Random random = new Random(42);
+        for (int i = 0; i < TASKS; i++) {
+            durationsMs[i] = random.nextDouble() < LONG_TASK_SHARE ? LONG_TASK_MS : SHORT_TASK_MS;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void skewedBatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int durationMs : durationsMs) {
+            pool.execute(() -> {
+                sleep(durationMs);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    private static void sleep(int ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.mishazx.benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Task bodies. CPU-bound tasks burn a fixed amount of work, blocking tasks park the worker as
+ * if waiting on I/O, and the mixed workload blocks in one task out of ten.
+ */
+public enum Workload {
+    CPU {
+        @Override
+        void run() {
+            Blackhole.consumeCPU(CPU_TOKENS);
+        }
+    },
+    BLOCKING {
+        @Override
+        void run() {
+            LockSupport.parkNanos(BLOCK_NANOS);
+        }
+    },
+    MIXED {
+        @Override
+        void run() {
+            if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                LockSupport.parkNanos(BLOCK_NANOS);
+            } else {
+                Blackhole.consumeCPU(CPU_TOKENS);
+            }
+        }
+    };
+
+    // Roughly a few microseconds on a current core
+    private static final long CPU_TOKENS = 2_000;
+    private static final long BLOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    abstract void run();
+}